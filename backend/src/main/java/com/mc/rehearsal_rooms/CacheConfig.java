@@ -0,0 +1,31 @@
+package com.mc.rehearsal_rooms;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+public class CacheConfig {
+
+    // Cada caché tiene su propio tamaño máximo y TTL (formato CaffeineSpec); recordStats alimenta las métricas cache.*
+    @Bean
+    public CacheManager cacheManager(@Value("${app.cache.rooms.spec:maximumSize=100,expireAfterWrite=5m}") String roomsSpec,
+                                     @Value("${app.cache.room.spec:maximumSize=500,expireAfterWrite=30m}") String roomSpec,
+                                     @Value("${app.cache.booking.spec:maximumSize=5000,expireAfterWrite=10m}") String bookingSpec) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setAllowNullValues(false);
+        cacheManager.registerCustomCache("rooms", Caffeine.from(roomsSpec).recordStats().build());
+        cacheManager.registerCustomCache("room", Caffeine.from(roomSpec).recordStats().build());
+        cacheManager.registerCustomCache("booking", Caffeine.from(bookingSpec).recordStats().build());
+        // Solo las cachés registradas arriba; un nombre desconocido en una anotación es un error, no una caché sin límite
+        cacheManager.setCacheNames(List.of());
+        // Los put/evict se aplican después del commit, para no publicar ni borrar datos de una transacción que se revierte
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
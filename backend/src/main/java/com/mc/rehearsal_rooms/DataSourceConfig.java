@@ -0,0 +1,37 @@
+package com.mc.rehearsal_rooms;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+
+@Configuration
+@EnableConfigurationProperties(SqlStatsProperties.class)
+public class DataSourceConfig {
+
+    // Sentencias y tiempo JDBC por petición para SqlStatementFilter
+    @Bean
+    @ConditionalOnProperty(name = "app.sql.stats.enabled", havingValue = "true", matchIfMissing = true)
+    public static BeanPostProcessor statementCountingPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return unwrapHikari(bean) != null ? new StatementCountingDataSource((DataSource) bean) : bean;
+            }
+        };
+    }
+
+    // Los envoltorios se aplican en cualquier orden, así que el pool se busca debajo de ellos
+    private static HikariDataSource unwrapHikari(Object bean) {
+        Object target = bean;
+        while (target instanceof DelegatingDataSource delegating) {
+            target = delegating.getTargetDataSource();
+        }
+        return target instanceof HikariDataSource hikari ? hikari : null;
+    }
+}
@@ -0,0 +1,46 @@
+package com.mc.rehearsal_rooms;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.sql.Wrapper;
+
+/**
+ * Apoyo para los proxies JDBC de StatementCountingDataSource.
+ * Identidad, unwrap/isWrapperFor y getTargetConnection (ConnectionProxy de Spring) se resuelven en
+ * el propio proxy: reenviados al objeto envuelto, proxy.equals(proxy) sería false y unwrap
+ * devolvería la conexión sin envolver.
+ */
+final class JdbcProxies {
+
+    // Resultado de invokeOnProxy cuando el método tiene que llegar al objeto envuelto
+    static final Object NOT_HANDLED = new Object();
+
+    private JdbcProxies() {
+    }
+
+    static Object invokeOnProxy(Object proxy, Wrapper target, Method method, Object[] args) throws SQLException {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "getTargetConnection":
+                return target;
+            case "unwrap":
+                return ((Class<?>) args[0]).isInstance(proxy) ? proxy : target.unwrap((Class<?>) args[0]);
+            case "isWrapperFor":
+                return ((Class<?>) args[0]).isInstance(proxy) || target.isWrapperFor((Class<?>) args[0]);
+            default:
+                return NOT_HANDLED;
+        }
+    }
+
+    static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.mc.rehearsal_rooms;
+
+import java.util.function.Supplier;
+
+/**
+ * Lecturas que no pueden ir a la réplica aunque la transacción sea de solo lectura: las que llenan una
+ * caché compartida o reconstruyen un índice en memoria. Una fila atrasada de la réplica se quedaría ahí
+ * para todos los usuarios hasta que caduque, aunque otra petición ya la hubiera invalidado.
+ * ReplicaRoutingDataSource decide al pedir la conexión, así que la primera consulta de la transacción
+ * tiene que hacerse dentro de call o run.
+ */
+public final class PrimaryReads {
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private PrimaryReads() {
+    }
+
+    public static <T> T call(Supplier<T> read) {
+        if (isPinned()) {
+            return read.get();
+        }
+        PINNED.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            PINNED.remove();
+        }
+    }
+
+    public static void run(Runnable read) {
+        call(() -> {
+            read.run();
+            return null;
+        });
+    }
+
+    static boolean isPinned() {
+        return PINNED.get() != null;
+    }
+}
@@ -0,0 +1,51 @@
+package com.mc.rehearsal_rooms;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Usuarios que acaban de modificar sus reservas. Durante la ventana configurada sus transacciones de
+ * solo lectura van al primario (ver ReplicaRoutingDataSource), así no dejan de ver lo que acaban de
+ * hacer aunque la réplica vaya por detrás. Es memoria local: cada instancia conoce solo sus escrituras.
+ */
+@Component
+public class ReadYourWritesTracker {
+
+    private final Cache<Integer, Boolean> recentWriters;
+
+    @Autowired
+    public ReadYourWritesTracker(@Value("${app.datasource.replica.read-your-writes-window:10s}") Duration window) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    // La ventana empieza cuando el cambio ya es visible en el primario
+    public void recordWriteAfterCommit(int userId) {
+        runAfterCommit(() -> recentWriters.put(userId, Boolean.TRUE));
+    }
+
+    public boolean hasRecentWrite(int userId) {
+        return recentWriters.getIfPresent(userId) != null;
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
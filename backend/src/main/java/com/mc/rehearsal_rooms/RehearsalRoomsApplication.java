@@ -3,10 +3,12 @@ package com.mc.rehearsal_rooms;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 
 @SpringBootApplication
 @EnableCaching
+@EnableScheduling
 public class RehearsalRoomsApplication {
 
 	public static void main(String[] args) {
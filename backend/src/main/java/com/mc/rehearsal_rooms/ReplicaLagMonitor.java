@@ -0,0 +1,114 @@
+package com.mc.rehearsal_rooms;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Mide cada poco el retraso de la réplica respecto al primario. Si pasa de la tolerancia, o no se
+ * puede medir porque la réplica no responde, las lecturas vuelven al primario hasta la siguiente
+ * medición correcta.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private static final String LAG_QUERY = """
+            SELECT pg_is_in_recovery() AS in_recovery,
+                   EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') AS streaming,
+                   pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() AS all_replayed,
+                   CAST(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 AS double precision) AS replay_age_ms""";
+
+    private final JdbcTemplate replica;
+    private final Duration maxLag;
+    private final String lagQuery;
+
+    private volatile Duration lag = Duration.ZERO;
+    private volatile boolean usable = false;
+
+    public ReplicaLagMonitor(DataSource replica, Duration maxLag, MeterRegistry meterRegistry) {
+        this(replica, maxLag, meterRegistry, LAG_QUERY);
+    }
+
+    // Los tests sustituyen la consulta por una con valores fijos para simular estados de la réplica
+    ReplicaLagMonitor(DataSource replica, Duration maxLag, MeterRegistry meterRegistry, String lagQuery) {
+        this.replica = new JdbcTemplate(replica);
+        this.maxLag = maxLag;
+        this.lagQuery = lagQuery;
+        Gauge.builder("datasource.replica.lag", this, monitor -> monitor.lag.toMillis() / 1000.0)
+                .description("Replication lag of the read replica at the last check")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replica.usable", this, monitor -> monitor.usable ? 1 : 0)
+                .description("Whether read-only transactions are being routed to the replica")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.datasource.replica.lag-check-interval-ms:1000}")
+    public void check() {
+        try {
+            Duration measured = replica.queryForObject(lagQuery, (rs, rowNum) -> lag(
+                    rs.getBoolean("in_recovery"),
+                    rs.getBoolean("streaming"),
+                    rs.getBoolean("all_replayed"), // NULL sin WAL recibido: cuenta como no aplicado
+                    rs.getObject("replay_age_ms", Double.class)));
+            if (measured == null) {
+                if (usable) {
+                    logger.warn("Read replica is not receiving WAL and its lag is unknown, routing reads to the primary");
+                }
+                usable = false;
+                return;
+            }
+            recordLag(measured);
+        } catch (DataAccessException ex) {
+            if (usable) {
+                logger.warn("Read replica unavailable, routing reads to the primary: {}", ex.getMessage());
+            }
+            usable = false;
+        }
+    }
+
+    /**
+     * Retraso a partir de lo que informa la réplica, o null si no se puede saber.
+     * Un servidor que no está en recuperación (p. ej. una segunda base local) cuenta como al día.
+     * Mientras recibe WAL por streaming, tener todo lo recibido ya aplicado significa estar al día
+     * aunque la última transacción reproducida sea antigua porque el primario no ha escrito nada.
+     * Sin receptor las dos posiciones se congelan y serían iguales siempre, así que solo vale la
+     * antigüedad de la última transacción reproducida, que crece mientras siga desconectada.
+     */
+    static Duration lag(boolean inRecovery, boolean streaming, boolean allReplayed, Double replayAgeMs) {
+        if (!inRecovery || (streaming && allReplayed)) {
+            return Duration.ZERO;
+        }
+        if (replayAgeMs == null) {
+            return streaming ? Duration.ZERO : null; // Recién arrancada: aún no ha reproducido ninguna transacción
+        }
+        return Duration.ofMillis(replayAgeMs.longValue());
+    }
+
+    void recordLag(Duration measured) {
+        boolean withinTolerance = measured.compareTo(maxLag) <= 0;
+        if (withinTolerance != usable) {
+            if (withinTolerance) {
+                logger.info("Read replica lag {} ms is within {} ms, routing read-only transactions to the replica",
+                        measured.toMillis(), maxLag.toMillis());
+            } else {
+                logger.warn("Read replica lag {} ms exceeds {} ms, routing reads to the primary",
+                        measured.toMillis(), maxLag.toMillis());
+            }
+        }
+        lag = measured;
+        usable = withinTolerance;
+    }
+
+    public boolean isReplicaUsable() {
+        return usable;
+    }
+}
@@ -0,0 +1,91 @@
+package com.mc.rehearsal_rooms;
+
+import com.mc.rehearsal_rooms.security.UserPrincipal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Envía las transacciones de solo lectura a la réplica y todo lo demás al primario. La decisión se toma
+ * al pedir la conexión, así que tiene que ir detrás de un LazyConnectionDataSourceProxy: el gestor de
+ * transacciones pide la conexión antes de marcar la transacción como de solo lectura.
+ * Se queda en el primario si la réplica va demasiado retrasada, si el usuario acaba de modificar sus reservas
+ * o si la lectura llena una caché o un índice compartido (ver PrimaryReads).
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target {
+        PRIMARY, REPLICA
+    }
+
+    // Motivo de cada decisión, para ver en las métricas cuántas lecturas se quedan en el primario y por qué
+    enum Route {
+        READ_WRITE("read_write", Target.PRIMARY),
+        REPLICA_LAGGING("replica_lagging", Target.PRIMARY),
+        READ_YOUR_WRITES("read_your_writes", Target.PRIMARY),
+        PINNED_TO_PRIMARY("pinned_to_primary", Target.PRIMARY),
+        READ_ONLY("read_only", Target.REPLICA);
+
+        private final String tag;
+        private final Target target;
+
+        Route(String tag, Target target) {
+            this.tag = tag;
+            this.target = target;
+        }
+    }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadYourWritesTracker readYourWrites;
+    private final Map<Route, Counter> routed = new EnumMap<>(Route.class);
+
+    public ReplicaRoutingDataSource(DataSource primary,
+                                    DataSource replica,
+                                    ReplicaLagMonitor lagMonitor,
+                                    ReadYourWritesTracker readYourWrites,
+                                    MeterRegistry meterRegistry) {
+        this.lagMonitor = lagMonitor;
+        this.readYourWrites = readYourWrites;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        for (Route route : Route.values()) {
+            routed.put(route, Counter.builder("datasource.routing")
+                    .description("Connections handed out by the routing datasource")
+                    .tag("target", route.target.name().toLowerCase())
+                    .tag("reason", route.tag)
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Route route = route();
+        routed.get(route).increment();
+        return route.target;
+    }
+
+    private Route route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Route.READ_WRITE;
+        }
+        if (PrimaryReads.isPinned()) {
+            return Route.PINNED_TO_PRIMARY;
+        }
+        if (!lagMonitor.isReplicaUsable()) {
+            return Route.REPLICA_LAGGING;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal
+                && readYourWrites.hasRecentWrite(principal.getId())) {
+            return Route.READ_YOUR_WRITES;
+        }
+        return Route.READ_ONLY;
+    }
+}
@@ -4,9 +4,14 @@ package com.mc.rehearsal_rooms;
 import com.mc.rehearsal_rooms.security.CustomUserDetailsService;
 import com.mc.rehearsal_rooms.security.JwtAuthenticationFilter;
 import com.mc.rehearsal_rooms.security.JwtAuthenticationEntryPoint;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -15,18 +20,24 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import java.util.Arrays;
+import java.util.Map;
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity(prePostEnabled = true)
 public class SecurityConfig {
 
+    // Lo único que se sirve sin token en el puerto de gestión
+    private static final RequestMatcher SCRAPE_ENDPOINTS = EndpointRequest.to("prometheus", "health");
+
     @Autowired
     private CustomUserDetailsService customUserDetailsService;
 
@@ -36,10 +47,18 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @Autowired
+    private Environment environment;
+
 
+    // Los hashes nuevos llevan prefijo {bcrypt}; los antiguos sin prefijo se siguen validando con BCrypt.
+    // Si el coste guardado es menor que el configurado, el hash se regenera en el siguiente login.
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.auth.bcrypt.strength:10}") int bcryptStrength) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        passwordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return passwordEncoder;
     }
 
     @Bean
@@ -79,6 +98,12 @@ public class SecurityConfig {
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
                 .authorizeHttpRequests(authz -> authz
+                        // El despacho asíncrono de una respuesta en streaming ya fue autorizado en la petición original
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        .requestMatchers(EndpointRequest.to("health")).permitAll()
+                        .requestMatchers(this::isManagementScrape).permitAll()
+                        // Métricas y demás endpoints del actuator: cualquiera puede registrarse, así que no basta con estar autenticado
+                        .requestMatchers(EndpointRequest.toAnyEndpoint()).hasRole("ADMIN")
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/rooms/**").permitAll()
                         .requestMatchers("/api/bookings/**").authenticated()
@@ -91,4 +116,11 @@ public class SecurityConfig {
 
         return http.build();
     }
+
+    // El puerto de gestión (MANAGEMENT_SERVER_PORT) es interno: Prometheus lo consulta sin token, pero el resto
+    // del actuator sigue pidiendo un token de administrador. Sin puerto propio la propiedad no existe.
+    private boolean isManagementScrape(HttpServletRequest request) {
+        Integer managementPort = environment.getProperty("local.management.port", Integer.class);
+        return managementPort != null && request.getLocalPort() == managementPort && SCRAPE_ENDPOINTS.matches(request);
+    }
 }
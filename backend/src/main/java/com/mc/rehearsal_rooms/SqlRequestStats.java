@@ -0,0 +1,82 @@
+package com.mc.rehearsal_rooms;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Sentencias SQL y tiempo en JDBC de la petición en curso. Vive en un ThreadLocal del hilo que atiende
+ * la petición y no necesita sincronización; fuera de una petición no hay nada que contar y el
+ * DataSource no envuelve las sentencias.
+ * El SQL que se ejecuta en otro hilo no se cuenta: el cuerpo de GET /api/bookings/export
+ * (StreamingResponseBody, en el executor asíncrono de Spring MVC) y la autenticación de
+ * POST /api/auth/login (pool de login). Sus métricas solo reflejan el SQL previo al cambio de hilo.
+ */
+final class SqlRequestStats {
+
+    private static final ThreadLocal<SqlRequestStats> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private int statements;
+    private long jdbcNanos;
+    // Sentencias agrupadas por forma: la misma consulta con otros parámetros cuenta como repetida
+    private final Map<String, Integer> statementsByShape = new HashMap<>();
+
+    private SqlRequestStats() {
+    }
+
+    static SqlRequestStats begin() {
+        SqlRequestStats stats = new SqlRequestStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    static SqlRequestStats current() {
+        return CURRENT.get();
+    }
+
+    void recordStatement(String sql) {
+        statements++;
+        statementsByShape.merge(shape(sql), 1, Integer::sum);
+    }
+
+    void recordExecution(long nanos) {
+        jdbcNanos += nanos;
+    }
+
+    int getStatements() {
+        return statements;
+    }
+
+    long getJdbcNanos() {
+        return jdbcNanos;
+    }
+
+    // Formas que se repiten al menos threshold veces: el patrón típico de una carga perezosa por fila (N+1)
+    Map<String, Integer> repeatedShapes(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        statementsByShape.forEach((shape, count) -> {
+            if (count >= threshold) {
+                repeated.put(shape, count);
+            }
+        });
+        return repeated;
+    }
+
+    // Literales y listas IN de distinto tamaño se reducen a ? para comparar consultas
+    static String shape(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = PARAMETER_LIST.matcher(shape).replaceAll("(?)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,181 @@
+package com.mc.rehearsal_rooms;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resume el SQL de cada petición: sentencias y tiempo en JDBC como métricas por ruta, aviso en el log
+ * cuando se pasa del presupuesto de la ruta o cuando la misma sentencia se repite (posible N+1) y,
+ * si está activado, las cabeceras X-SQL-Statements / X-SQL-Time-Ms en la respuesta.
+ * Va antes que Spring Security para contar también lo que hace la autenticación.
+ * Solo se cuenta el SQL del hilo de la petición; ver SqlRequestStats para las rutas que ejecutan SQL en otro hilo.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "app.sql.stats.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlStatementFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlStatementFilter.class);
+
+    static final String STATEMENTS_HEADER = "X-SQL-Statements";
+    static final String TIME_HEADER = "X-SQL-Time-Ms";
+
+    private final SqlStatsProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    // Los medidores se registran una vez por ruta; las rutas son los patrones de Spring MVC, así que son pocas
+    private final Map<Route, RouteMeters> metersByRoute = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SqlStatementFilter(SqlStatsProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        SqlRequestStats stats = SqlRequestStats.begin();
+        StatsHeaderResponse statsResponse = properties.isResponseHeader() ? new StatsHeaderResponse(response, stats) : null;
+        try {
+            filterChain.doFilter(request, statsResponse != null ? statsResponse : response);
+        } finally {
+            SqlRequestStats.end();
+            if (statsResponse != null) {
+                statsResponse.addStatsHeaders(); // Respuestas sin cuerpo
+            }
+            report(request, stats);
+        }
+    }
+
+    private void report(HttpServletRequest request, SqlRequestStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        String method = request.getMethod();
+        RouteMeters meters = metersByRoute.computeIfAbsent(new Route(method, uri), this::registerMeters);
+
+        meters.statements.record(stats.getStatements());
+        meters.jdbcTime.record(stats.getJdbcNanos(), TimeUnit.NANOSECONDS);
+
+        Map<String, Integer> repeated = stats.repeatedShapes(properties.getRepeatedStatementThreshold());
+        if (!repeated.isEmpty()) {
+            meters.repeated.increment();
+            repeated.forEach((shape, count) ->
+                    logger.warn("Suspected N+1 on {} {}: statement executed {} times: {}", method, uri, count, shape));
+        }
+
+        int budget = properties.budgetFor(uri);
+        if (stats.getStatements() > budget) {
+            meters.overBudget.increment();
+            logger.warn("SQL budget exceeded on {} {}: {} statements (budget {}), {} ms in JDBC",
+                    method, uri, stats.getStatements(), budget, TimeUnit.NANOSECONDS.toMillis(stats.getJdbcNanos()));
+        }
+    }
+
+    private RouteMeters registerMeters(Route route) {
+        return new RouteMeters(
+                DistributionSummary.builder("http.server.requests.sql.statements")
+                        .description("SQL statements issued per HTTP request")
+                        .tags("method", route.method(), "uri", route.uri())
+                        .publishPercentileHistogram()
+                        .maximumExpectedValue(1000.0)
+                        .register(meterRegistry),
+                Timer.builder("http.server.requests.sql.time")
+                        .description("Time spent executing JDBC statements per HTTP request")
+                        .tags("method", route.method(), "uri", route.uri())
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(Duration.ofNanos(10_000))
+                        .register(meterRegistry),
+                counter("http.server.requests.sql.repeated", "Requests that repeated the same statement shape (suspected N+1)", route),
+                counter("http.server.requests.sql.over_budget", "Requests that issued more SQL statements than their budget", route));
+    }
+
+    private Counter counter(String name, String description, Route route) {
+        return Counter.builder(name)
+                .description(description)
+                .tags("method", route.method(), "uri", route.uri())
+                .register(meterRegistry);
+    }
+
+    private record Route(String method, String uri) {
+    }
+
+    private record RouteMeters(DistributionSummary statements, Timer jdbcTime, Counter repeated, Counter overBudget) {
+    }
+
+    // Las cabeceras tienen que ir antes de que se escriba el cuerpo; para entonces el controlador ya terminó su SQL
+    private static final class StatsHeaderResponse extends HttpServletResponseWrapper {
+
+        private final SqlRequestStats stats;
+
+        StatsHeaderResponse(HttpServletResponse response, SqlRequestStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        void addStatsHeaders() {
+            HttpServletResponse response = (HttpServletResponse) getResponse();
+            if (response.isCommitted() || response.containsHeader(STATEMENTS_HEADER)) {
+                return;
+            }
+            response.setHeader(STATEMENTS_HEADER, Integer.toString(stats.getStatements()));
+            response.setHeader(TIME_HEADER, String.format(Locale.ROOT, "%.3f", stats.getJdbcNanos() / 1_000_000.0));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addStatsHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addStatsHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addStatsHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addStatsHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addStatsHeaders();
+            super.sendError(sc);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.mc.rehearsal_rooms;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "app.sql.stats")
+public class SqlStatsProperties {
+
+    private boolean enabled = true;
+
+    // Cabeceras X-SQL-Statements / X-SQL-Time-Ms en cada respuesta; pensado para desarrollo
+    private boolean responseHeader = false;
+
+    // Sentencias permitidas por petición cuando la ruta no tiene un presupuesto propio
+    private int defaultBudget = 10;
+
+    // Veces que se tiene que repetir la misma forma de sentencia para sospechar un N+1
+    private int repeatedStatementThreshold = 5;
+
+    // Presupuesto por patrón de ruta de Spring MVC, p. ej. budgets[/api/rooms/{id}]=2
+    private Map<String, Integer> budgets = new HashMap<>();
+
+    public int budgetFor(String uriPattern) {
+        return budgets.getOrDefault(uriPattern, defaultBudget);
+    }
+}
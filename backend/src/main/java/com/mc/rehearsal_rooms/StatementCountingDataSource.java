@@ -0,0 +1,79 @@
+package com.mc.rehearsal_rooms;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Cuenta las sentencias y el tiempo de ejecución en JDBC de la petición en curso (ver SqlRequestStats).
+ * Cubre tanto Hibernate como las consultas nativas; una sentencia preparada cuenta al prepararse y
+ * una Statement simple al ejecutar cada SQL. Sin petición en curso las sentencias no se envuelven.
+ */
+public class StatementCountingDataSource extends DelegatingDataSource {
+
+    public StatementCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return counting(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return counting(super.getConnection(username, password));
+    }
+
+    private static Connection counting(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(), new Class<?>[]{ConnectionProxy.class},
+                (proxy, method, args) -> {
+                    Object handled = JdbcProxies.invokeOnProxy(proxy, connection, method, args);
+                    if (handled != JdbcProxies.NOT_HANDLED) {
+                        return handled;
+                    }
+                    Object result = JdbcProxies.invoke(connection, method, args);
+                    SqlRequestStats stats = SqlRequestStats.current();
+                    if (stats == null || !(result instanceof Statement statement)) {
+                        return result;
+                    }
+                    String name = method.getName();
+                    if ("prepareStatement".equals(name) || "prepareCall".equals(name)) {
+                        stats.recordStatement((String) args[0]);
+                    }
+                    return timed(statement, stats);
+                });
+    }
+
+    private static Statement timed(Statement statement, SqlRequestStats stats) {
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class
+                : Statement.class;
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    Object handled = JdbcProxies.invokeOnProxy(proxy, statement, method, args);
+                    if (handled != JdbcProxies.NOT_HANDLED) {
+                        return handled;
+                    }
+                    if (!method.getName().startsWith("execute")) {
+                        return JdbcProxies.invoke(statement, method, args);
+                    }
+                    if (args != null && args.length > 0 && args[0] instanceof String sql) {
+                        stats.recordStatement(sql);
+                    }
+                    long start = System.nanoTime();
+                    try {
+                        return JdbcProxies.invoke(statement, method, args);
+                    } finally {
+                        stats.recordExecution(System.nanoTime() - start);
+                    }
+                });
+    }
+}
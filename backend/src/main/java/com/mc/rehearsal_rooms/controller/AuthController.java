@@ -5,6 +5,7 @@ import com.mc.rehearsal_rooms.exception.ResourceNotFoundException;
 import jakarta.validation.Valid;
 import com.mc.rehearsal_rooms.dto.JwtAuthenticationResponseDTO;
 import com.mc.rehearsal_rooms.dto.LoginRequestDTO;
+import com.mc.rehearsal_rooms.dto.RefreshTokenRequestDTO;
 import com.mc.rehearsal_rooms.dto.RegisterRequestDTO;
 import com.mc.rehearsal_rooms.dto.UserResponseDTO;
 import com.mc.rehearsal_rooms.model.User;
@@ -12,46 +13,49 @@ import com.mc.rehearsal_rooms.repository.UserRepository;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.security.core.userdetails.UserDetails;
-import com.mc.rehearsal_rooms.security.JwtTokenProvider;
+import com.mc.rehearsal_rooms.security.TokenRevocationList;
+import com.mc.rehearsal_rooms.security.UserPrincipal;
+import com.mc.rehearsal_rooms.service.LoginService;
+import com.mc.rehearsal_rooms.service.RefreshTokenService;
 import com.mc.rehearsal_rooms.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
 
     private final UserService userService;
-    private final AuthenticationManager authenticationManager;
-    private final JwtTokenProvider tokenProvider;
+    private final LoginService loginService;
+    private final RefreshTokenService refreshTokenService;
     private final UserRepository userRepository;
+    private final TokenRevocationList tokenRevocationList;
     @Autowired
     public AuthController(UserService userService,
-                          AuthenticationManager authenticationManager,
-                          JwtTokenProvider tokenProvider,
-                          UserRepository userRepository) {
+                          LoginService loginService,
+                          RefreshTokenService refreshTokenService,
+                          UserRepository userRepository,
+                          TokenRevocationList tokenRevocationList) {
         this.userService = userService;
-        this.authenticationManager = authenticationManager;
-        this.tokenProvider = tokenProvider;
+        this.loginService = loginService;
+        this.refreshTokenService = refreshTokenService;
         this.userRepository = userRepository;
+        this.tokenRevocationList = tokenRevocationList;
     }
 
     @GetMapping("/me")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<UserResponseDTO> getCurrentUser(@AuthenticationPrincipal UserDetails userDetails) {
-        String username = userDetails.getUsername();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
+    public ResponseEntity<UserResponseDTO> getCurrentUser(@AuthenticationPrincipal UserPrincipal principal) {
+        // Email y nombre no viajan en el token; se leen por clave primaria
+        User user = userRepository.findById(principal.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", principal.getId()));
 
         UserResponseDTO userResponseDTO = new UserResponseDTO(
                 user.getId(),
@@ -70,17 +74,27 @@ public class AuthController {
         return new ResponseEntity<>(registeredUser, HttpStatus.CREATED);
     }
 
+    // El hash de la contraseña se calcula en el pool de login; este hilo queda libre mientras tanto
     @PostMapping("/login")
-    public ResponseEntity<JwtAuthenticationResponseDTO> authenticateUser(@Valid @RequestBody LoginRequestDTO loginRequest) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        loginRequest.getUsernameOrEmail(),
-                        loginRequest.getPassword()
-                )
-        );
+    public CompletableFuture<ResponseEntity<JwtAuthenticationResponseDTO>> authenticateUser(@Valid @RequestBody LoginRequestDTO loginRequest) {
+        return loginService.login(loginRequest).thenApply(ResponseEntity::ok);
+    }
 
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = tokenProvider.generateToken(authentication);
-        return ResponseEntity.ok(new JwtAuthenticationResponseDTO(jwt));
+    // Renueva el access token sin contraseña; el refresh token usado deja de ser válido
+    @PostMapping("/refresh")
+    public ResponseEntity<JwtAuthenticationResponseDTO> refreshToken(@Valid @RequestBody RefreshTokenRequestDTO refreshTokenRequest) {
+        return ResponseEntity.ok(refreshTokenService.refresh(refreshTokenRequest.getRefreshToken()));
+    }
+
+    // Revoca el access token actual y, si se envía, la familia del refresh token (solo si es del mismo usuario)
+    @PostMapping("/logout")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Void> logout(@AuthenticationPrincipal UserPrincipal principal,
+                                       @RequestBody(required = false) RefreshTokenRequestDTO refreshTokenRequest) {
+        if (refreshTokenRequest != null && refreshTokenRequest.getRefreshToken() != null) {
+            refreshTokenService.revoke(refreshTokenRequest.getRefreshToken(), principal.getId());
+        }
+        tokenRevocationList.revoke(principal.getTokenId(), principal.getTokenExpiresAt());
+        return ResponseEntity.noContent().build();
     }
 }
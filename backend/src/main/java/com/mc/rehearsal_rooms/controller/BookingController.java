@@ -1,53 +1,71 @@
 package com.mc.rehearsal_rooms.controller;
 import jakarta.validation.Valid;
+import com.mc.rehearsal_rooms.dto.BookingExportFormat;
+import com.mc.rehearsal_rooms.dto.BookingQuoteDTO;
+import com.mc.rehearsal_rooms.dto.BookingQuoteRequestDTO;
 import com.mc.rehearsal_rooms.dto.BookingRequestDTO;
 import com.mc.rehearsal_rooms.dto.BookingResponseDTO;
+import com.mc.rehearsal_rooms.dto.BulkBookingRequestDTO;
+import com.mc.rehearsal_rooms.dto.CursorPageDTO;
+import com.mc.rehearsal_rooms.dto.RecurringBookingRequestDTO;
+import com.mc.rehearsal_rooms.security.UserPrincipal;
+import com.mc.rehearsal_rooms.service.BookingExportService;
 import com.mc.rehearsal_rooms.service.BookingService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/bookings")
 public class BookingController {
     private final BookingService bookingService;
+    private final BookingExportService bookingExportService;
 
     @Autowired
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService, BookingExportService bookingExportService) {
         this.bookingService = bookingService;
-    }
-
-    private String getAuthenticatedUsername() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated() || "anonymousUser".equals(authentication.getPrincipal())) {
-
-            throw new IllegalStateException("User not authenticated");
-        }
-        Object principal = authentication.getPrincipal();
-        if (principal instanceof UserDetails) {
-            return ((UserDetails) principal).getUsername();
-        } else {
-            return principal.toString();
-        }
+        this.bookingExportService = bookingExportService;
     }
 
     @PostMapping
     @PreAuthorize("isAuthenticated()") // Cualquier usuario autenticado puede intentar crear una reserva
-    public ResponseEntity<BookingResponseDTO> createBooking(@Valid @RequestBody BookingRequestDTO bookingRequestDTO) {
-        String username = getAuthenticatedUsername();
-        BookingResponseDTO createdBooking = bookingService.createBooking(bookingRequestDTO, username);
+    public ResponseEntity<BookingResponseDTO> createBooking(@Valid @RequestBody BookingRequestDTO bookingRequestDTO,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        BookingResponseDTO createdBooking = bookingService.createBooking(bookingRequestDTO, principal);
         return new ResponseEntity<>(createdBooking, HttpStatus.CREATED);
     }
 
+    // Varias reservas en una sola transacción: o se crean todas o ninguna
+    @PostMapping("/bulk")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<BookingResponseDTO>> createBookings(@Valid @RequestBody BulkBookingRequestDTO bulkBookingRequestDTO,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        List<BookingResponseDTO> createdBookings = bookingService.createBookings(bulkBookingRequestDTO.getBookings(), principal);
+        return new ResponseEntity<>(createdBookings, HttpStatus.CREATED);
+    }
+
+    // Precios de varias combinaciones sala/horario antes de reservar; no crea nada
+    @PostMapping("/quote")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<BookingQuoteDTO>> quoteBookings(@Valid @RequestBody BookingQuoteRequestDTO bookingQuoteRequestDTO) {
+        return ResponseEntity.ok(bookingService.quoteBookings(bookingQuoteRequestDTO.getQuotes()));
+    }
+
+    @PostMapping("/recurring")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<BookingResponseDTO>> createRecurringBooking(@Valid @RequestBody RecurringBookingRequestDTO recurringBookingRequestDTO,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        List<BookingResponseDTO> createdBookings = bookingService.createRecurringBooking(recurringBookingRequestDTO, principal);
+        return new ResponseEntity<>(createdBookings, HttpStatus.CREATED);
+    }
+
     @GetMapping("/{bookingId}")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<BookingResponseDTO> getBookingById(@PathVariable int bookingId) {
@@ -59,23 +77,37 @@ public class BookingController {
 
     @GetMapping("/my-bookings")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<BookingResponseDTO>> getMyBookings(
-            @PageableDefault(size = 10, sort = "startTime") Pageable pageable
+    public ResponseEntity<CursorPageDTO<BookingResponseDTO>> getMyBookings(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size
     ) {
-        String username = getAuthenticatedUsername();
-        List<BookingResponseDTO> bookings = bookingService.getMyBookings(username, pageable);
+        CursorPageDTO<BookingResponseDTO> bookings = bookingService.getMyBookings(principal, cursor, size);
         return ResponseEntity.ok(bookings);
     }
 
     // --- Endpoints para Administrador ---
     @GetMapping("/all")
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
-    public ResponseEntity<Page<BookingResponseDTO>> getAllBookings(
-            @PageableDefault(size = 10, sort = "startTime") Pageable pageable) {
-        Page<BookingResponseDTO> bookingsPage = bookingService.getAllBookings(pageable);
+    public ResponseEntity<CursorPageDTO<BookingResponseDTO>> getAllBookings(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        CursorPageDTO<BookingResponseDTO> bookingsPage = bookingService.getAllBookings(cursor, size);
         return ResponseEntity.ok(bookingsPage);
     }
 
+    // Descarga completa para contabilidad; se escribe mientras se lee de la base de datos
+    @GetMapping("/export")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportBookings(@RequestParam(defaultValue = "csv") String format) {
+        BookingExportFormat exportFormat = BookingExportFormat.fromParameter(format);
+        StreamingResponseBody body = outputStream -> bookingExportService.exportBookings(exportFormat, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"bookings." + exportFormat.getFileExtension() + "\"")
+                .body(body);
+    }
+
     @GetMapping("/user/{userId}")
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
     public ResponseEntity<List<BookingResponseDTO>> getBookingsByUserId(@PathVariable int userId) {
@@ -85,9 +117,8 @@ public class BookingController {
 
     @DeleteMapping("/{bookingId}")
     @PreAuthorize("isAuthenticated()") // El servicio se encarga de la lógica de quién puede cancelar
-    public ResponseEntity<Void> cancelBooking(@PathVariable int bookingId) {
-        String username = getAuthenticatedUsername();
-        boolean cancelled = bookingService.cancelBooking(bookingId, username);
+    public ResponseEntity<Void> cancelBooking(@PathVariable int bookingId, @AuthenticationPrincipal UserPrincipal principal) {
+        boolean cancelled = bookingService.cancelBooking(bookingId, principal);
         if (cancelled) {
             return ResponseEntity.noContent().build();
         } else {
@@ -1,7 +1,9 @@
 package com.mc.rehearsal_rooms.controller;
 
+import com.mc.rehearsal_rooms.dto.AvailabilitySlotDTO;
 import com.mc.rehearsal_rooms.dto.RoomRequestDTO;
 import com.mc.rehearsal_rooms.dto.RoomResponseDTO;
+import com.mc.rehearsal_rooms.service.BookingService;
 import com.mc.rehearsal_rooms.service.RoomService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -10,9 +12,11 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.access.prepost.PreAuthorize;
 import jakarta.validation.Valid;
 
+import java.time.Instant;
 import java.util.List;
 
 
@@ -21,9 +25,11 @@ import java.util.List;
 public class RoomController {
 
     private final RoomService roomService;
+    private final BookingService bookingService;
     @Autowired
-    public RoomController(RoomService roomService) {
+    public RoomController(RoomService roomService, BookingService bookingService) {
         this.roomService = roomService;
+        this.bookingService = bookingService;
     }
 
     @PostMapping
@@ -48,6 +54,26 @@ public class RoomController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    // Salas con capacidad y equipo suficientes, y opcionalmente libres entre 'from' y 'to'
+    @GetMapping("/search")
+    public ResponseEntity<List<RoomResponseDTO>> searchRooms(
+            @RequestParam(defaultValue = "1") int capacity,
+            @RequestParam(required = false) List<String> equipment,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        List<RoomResponseDTO> rooms = roomService.searchRooms(capacity, equipment != null ? equipment : List.of(), from, to);
+        return ResponseEntity.ok(rooms);
+    }
+
+    // Huecos libres de la sala entre 'from' y 'to' dentro del horario de reservas
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<List<AvailabilitySlotDTO>> getRoomAvailability(
+            @PathVariable int id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        return ResponseEntity.ok(bookingService.getRoomAvailability(id, from, to));
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
     public ResponseEntity<RoomResponseDTO> updateRoom(@PathVariable int id, @Valid @RequestBody RoomRequestDTO roomRequestDTO) {
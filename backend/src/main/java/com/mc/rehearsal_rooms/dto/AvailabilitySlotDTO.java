@@ -0,0 +1,15 @@
+package com.mc.rehearsal_rooms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilitySlotDTO {
+    private Instant startTime;
+    private Instant endTime;
+}
@@ -0,0 +1,32 @@
+package com.mc.rehearsal_rooms.dto;
+
+import java.util.Locale;
+
+public enum BookingExportFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String fileExtension;
+
+    BookingExportFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    public static BookingExportFormat fromParameter(String format) {
+        try {
+            return valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Formato de exportación no soportado: " + format + ". Use csv o ndjson.");
+        }
+    }
+}
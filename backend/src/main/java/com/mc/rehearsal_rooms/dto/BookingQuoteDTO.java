@@ -0,0 +1,18 @@
+package com.mc.rehearsal_rooms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingQuoteDTO {
+    private int roomId;
+    private Instant startTime;
+    private Instant endTime;
+    private BigDecimal totalCost;
+}
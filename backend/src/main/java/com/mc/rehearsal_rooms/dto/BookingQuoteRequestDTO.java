@@ -0,0 +1,20 @@
+package com.mc.rehearsal_rooms.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingQuoteRequestDTO {
+
+    @NotEmpty(message = "Quotes cannot be empty")
+    @Size(max = 1000, message = "A quote request cannot contain more than 1000 items")
+    private List<@Valid BookingRequestDTO> quotes;
+}
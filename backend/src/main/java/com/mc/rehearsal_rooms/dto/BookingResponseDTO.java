@@ -1,5 +1,6 @@
 package com.mc.rehearsal_rooms.dto;
 
+import com.mc.rehearsal_rooms.model.CentsConverter;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
@@ -22,4 +23,10 @@ public class BookingResponseDTO {
     private LocalDateTime endTime;
     private LocalDateTime createdAt;
     private BigDecimal totalCost;
+
+    // El coste se guarda en céntimos; se convierte a importe aquí, al salir por la API
+    public BookingResponseDTO(int id, int roomId, String roomName, int userId, String username,
+                              LocalDateTime startTime, LocalDateTime endTime, LocalDateTime createdAt, long totalCostCents) {
+        this(id, roomId, roomName, userId, username, startTime, endTime, createdAt, CentsConverter.toAmount(totalCostCents));
+    }
 }
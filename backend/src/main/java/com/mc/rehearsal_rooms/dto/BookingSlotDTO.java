@@ -0,0 +1,18 @@
+package com.mc.rehearsal_rooms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Proyección mínima de una reserva: solo lo necesario para detectar solapamientos
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingSlotDTO {
+    private int bookingId;
+    private int roomId;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+}
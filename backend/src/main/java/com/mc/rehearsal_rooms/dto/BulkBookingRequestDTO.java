@@ -0,0 +1,20 @@
+package com.mc.rehearsal_rooms.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkBookingRequestDTO {
+
+    @NotEmpty(message = "Bookings cannot be empty")
+    @Size(max = 100, message = "A bulk request cannot contain more than 100 bookings")
+    private List<@Valid BookingRequestDTO> bookings;
+}
@@ -0,0 +1,17 @@
+package com.mc.rehearsal_rooms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Página por cursor: nextCursor es opaco para el cliente y es null en la última página
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+    private List<T> content;
+    private String nextCursor;
+    private boolean hasNext;
+}
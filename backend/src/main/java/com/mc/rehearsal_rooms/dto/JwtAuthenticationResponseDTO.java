@@ -8,8 +8,16 @@ import lombok.NoArgsConstructor;
 public class JwtAuthenticationResponseDTO {
     private String accessToken;
     private String tokenType = "Bearer";
+    private String refreshToken;
+    private long expiresIn; // Segundos de vida del access token
 
     public JwtAuthenticationResponseDTO(String accessToken) {
         this.accessToken = accessToken;
     }
+
+    public JwtAuthenticationResponseDTO(String accessToken, String refreshToken, long expiresIn) {
+        this.accessToken = accessToken;
+        this.refreshToken = refreshToken;
+        this.expiresIn = expiresIn;
+    }
 }
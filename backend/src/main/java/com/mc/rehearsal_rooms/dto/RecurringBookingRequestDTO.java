@@ -0,0 +1,37 @@
+package com.mc.rehearsal_rooms.dto;
+
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// Misma sala y horario repetidos cada intervalDays días (semanal por defecto)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecurringBookingRequestDTO {
+
+    @NotNull(message = "Room ID cannot be null")
+    private int roomId;
+
+    @NotNull(message = "Start time cannot be null")
+    @Future(message = "Start time must be in the future")
+    private Instant startTime;
+
+    @NotNull(message = "End time cannot be null")
+    @Future(message = "End time must be in the future")
+    private Instant endTime;
+
+    @Min(value = 1, message = "Occurrences must be at least 1")
+    @Max(value = 52, message = "Occurrences cannot exceed 52")
+    private int occurrences;
+
+    @Min(value = 1, message = "Interval must be at least 1 day")
+    @Max(value = 28, message = "Interval cannot exceed 28 days")
+    private int intervalDays = 7;
+}
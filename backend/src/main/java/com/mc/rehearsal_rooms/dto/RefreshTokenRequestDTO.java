@@ -0,0 +1,15 @@
+package com.mc.rehearsal_rooms.dto;
+
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshTokenRequestDTO {
+    @NotBlank(message = "Refresh token cannot be blank")
+    private String refreshToken;
+}
@@ -37,4 +37,18 @@ public class RoomRequestDTO {
     @DecimalMin(value = "0.0", inclusive = false, message = "Price per hour must be greater than 0")
     @Digits(integer = 8, fraction = 2, message = "Price format is invalid (max 8 integer digits, 2 fraction digits)") // Coincide con precision/scale - 2
     private BigDecimal pricePerHour;
+
+    // Opcionales: sin tarifa punta o de fin de semana se aplica la tarifa base
+    @DecimalMin(value = "0.0", inclusive = false, message = "Peak price per hour must be greater than 0")
+    @Digits(integer = 8, fraction = 2, message = "Price format is invalid (max 8 integer digits, 2 fraction digits)")
+    private BigDecimal peakPricePerHour;
+
+    @DecimalMin(value = "0.0", inclusive = false, message = "Weekend price per hour must be greater than 0")
+    @Digits(integer = 8, fraction = 2, message = "Price format is invalid (max 8 integer digits, 2 fraction digits)")
+    private BigDecimal weekendPricePerHour;
+
+    // Bloque mínimo de cobro en minutos; por defecto 60
+    @Min(value = 15, message = "Minimum block must be at least 15 minutes")
+    @Max(value = 240, message = "Minimum block must be at most 240 minutes")
+    private Integer minimumBlockMinutes;
 }
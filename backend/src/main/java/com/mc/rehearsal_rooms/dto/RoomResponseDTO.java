@@ -18,5 +18,8 @@ public class RoomResponseDTO {
     private String imageUrl;
     private String description;
     private BigDecimal pricePerHour;
+    private BigDecimal peakPricePerHour;
+    private BigDecimal weekendPricePerHour;
+    private int minimumBlockMinutes;
 
 }
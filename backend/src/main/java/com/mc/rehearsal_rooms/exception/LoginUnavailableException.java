@@ -0,0 +1,11 @@
+package com.mc.rehearsal_rooms.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class LoginUnavailableException extends RuntimeException {
+    public LoginUnavailableException(String message) {
+        super(message);
+    }
+}
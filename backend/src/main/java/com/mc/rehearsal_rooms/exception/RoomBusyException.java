@@ -0,0 +1,12 @@
+package com.mc.rehearsal_rooms.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// La sala tiene demasiadas solicitudes en cola: no hay conflicto de horario, el cliente puede reintentar
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class RoomBusyException extends RuntimeException {
+    public RoomBusyException(String message) {
+        super(message);
+    }
+}
@@ -6,9 +6,6 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.time.Duration;
 import java.time.LocalDateTime;
 
 @Data
@@ -18,8 +15,10 @@ import java.time.LocalDateTime;
 @Table(name = "bookings")
 public class Booking {
 
+    // Secuencia con asignación en bloques (pooled) para que Hibernate pueda agrupar los INSERT en lotes JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private int id;
 
     @ManyToOne(fetch = FetchType.LAZY) // Muchas reservas pueden pertenecer a una sala
@@ -39,39 +38,16 @@ public class Booking {
     @Column(updatable = false, nullable = false)
     private LocalDateTime createdAt;
 
-    @Column(nullable = false, precision = 12, scale = 2)
-    private BigDecimal totalCost;
-
-
-
-    public void calculateTotalCost() {
-        if (this.room != null && this.room.getPricePerHour() != null && this.startTime != null && this.endTime != null) {
-            if (this.endTime.isAfter(this.startTime)) {
-                Duration duration = Duration.between(this.startTime, this.endTime);
-
-                long minutes = duration.toMinutes();
-                if (minutes <= 0) {
-                    this.totalCost = BigDecimal.ZERO;
-                    return;
-                }
-
-                BigDecimal hours = BigDecimal.valueOf(Math.ceil(minutes / 60.0));
-
-                this.totalCost = this.room.getPricePerHour().multiply(hours).setScale(2, RoundingMode.HALF_UP);
-            } else {
-                this.totalCost = BigDecimal.ZERO;
-            }
-        } else {
-            this.totalCost = BigDecimal.ZERO;
-        }
-    }
+    // Calculado por PricingEngine al crear la reserva
+    @Column(name = "total_cost", nullable = false, precision = 12, scale = 2)
+    @Convert(converter = CentsConverter.class)
+    private long totalCostCents;
 
     @PrePersist
     protected void onPrePersist() {
         if (this.createdAt == null) {
             this.createdAt = LocalDateTime.now();
         }
-        calculateTotalCost();
     }
 
 
@@ -0,0 +1,33 @@
+package com.mc.rehearsal_rooms.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Importes en céntimos (long) dentro de la aplicación y NUMERIC(x, 2) en la base de datos.
+ * BigDecimal solo aparece al leer/escribir la columna y en los DTO de la API.
+ */
+@Converter
+public class CentsConverter implements AttributeConverter<Long, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Long cents) {
+        return toAmount(cents);
+    }
+
+    @Override
+    public Long convertToEntityAttribute(BigDecimal amount) {
+        return toCents(amount);
+    }
+
+    public static Long toCents(BigDecimal amount) {
+        return amount == null ? null : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toAmount(Long cents) {
+        return cents == null ? null : BigDecimal.valueOf(cents, 2);
+    }
+}
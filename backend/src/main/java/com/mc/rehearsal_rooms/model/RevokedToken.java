@@ -0,0 +1,28 @@
+package com.mc.rehearsal_rooms.model;
+
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at")
+})
+public class RevokedToken {
+
+    // jti del access token revocado
+    @Id
+    @Column(length = 36)
+    private String jti;
+
+    // exp del token original: pasada esta fecha el token ya no es válido y la fila se puede borrar
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
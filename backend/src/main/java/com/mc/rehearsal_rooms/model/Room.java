@@ -1,12 +1,12 @@
 package com.mc.rehearsal_rooms.model;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
 import java.util.List;
 import java.util.ArrayList;
-import java.math.BigDecimal;
 
 
 @Data
@@ -43,8 +43,25 @@ public class Room {
     @Column(length = 2048)
     private String imageUrl;
 
-    @Column(nullable = false, precision = 10, scale = 2)
-    private BigDecimal pricePerHour;
+    // Tarifas en céntimos por hora; los DTO las exponen como BigDecimal
+    @Column(name = "price_per_hour", nullable = false, precision = 10, scale = 2)
+    @Convert(converter = CentsConverter.class)
+    private long pricePerHourCents;
+
+    // Tarifa dentro del horario punta (app.pricing.peak-*); null = tarifa base
+    @Column(name = "peak_price_per_hour", precision = 10, scale = 2)
+    @Convert(converter = CentsConverter.class)
+    private Long peakPricePerHourCents;
+
+    // Tarifa de sábados y domingos durante todo el día; null = mismas reglas que entre semana
+    @Column(name = "weekend_price_per_hour", precision = 10, scale = 2)
+    @Convert(converter = CentsConverter.class)
+    private Long weekendPricePerHourCents;
+
+    // Se cobra en bloques completos de esta duración (60 = horas completas)
+    @Column(name = "minimum_block_minutes", nullable = false)
+    @ColumnDefault("60")
+    private int minimumBlockMinutes = 60;
 
 
 }
@@ -1,13 +1,22 @@
 package com.mc.rehearsal_rooms.repository;
 
+import com.mc.rehearsal_rooms.dto.BookingResponseDTO;
+import com.mc.rehearsal_rooms.dto.BookingSlotDTO;
 import com.mc.rehearsal_rooms.model.Booking;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Integer> {
@@ -20,11 +29,66 @@ public interface BookingRepository extends JpaRepository<Booking, Integer> {
                                           @Param("startTime") LocalDateTime startTime,
                                           @Param("endTime") LocalDateTime endTime);
 
+    // Carga solo los intervalos (sin entidades) de las reservas que terminan después de un instante
+    @Query("SELECT new com.mc.rehearsal_rooms.dto.BookingSlotDTO(b.id, b.room.id, b.startTime, b.endTime) " +
+            "FROM Booking b WHERE b.endTime > :after")
+    List<BookingSlotDTO> findSlotsEndingAfter(@Param("after") LocalDateTime after);
+
+    // Reservas existentes de varias salas dentro de un rango, para validar reservas en bloque con una sola consulta
+    @Query("SELECT new com.mc.rehearsal_rooms.dto.BookingSlotDTO(b.id, b.room.id, b.startTime, b.endTime) " +
+            "FROM Booking b WHERE b.room.id IN :roomIds AND b.startTime < :endTime AND b.endTime > :startTime")
+    List<BookingSlotDTO> findSlotsInRooms(@Param("roomIds") Collection<Integer> roomIds,
+                                          @Param("startTime") LocalDateTime startTime,
+                                          @Param("endTime") LocalDateTime endTime);
+
     List<Booking> findByUserId(int userId);
 
     List<Booking> findByRoomId(int roomId);
 
 
-    List<Booking> findByUserIdAndStartTimeAfterOrderByStartTimeAsc(int userId, LocalDateTime startTime);
+    // Proyecciones a BookingResponseDTO: sala y usuario se resuelven con JOIN en la misma sentencia,
+    // sin inicializar las asociaciones LAZY una por una (N+1)
+    String RESPONSE_PROJECTION = "SELECT new com.mc.rehearsal_rooms.dto.BookingResponseDTO(" +
+            "b.id, r.id, r.name, u.id, u.username, b.startTime, b.endTime, b.createdAt, b.totalCostCents) " +
+            "FROM Booking b JOIN b.room r JOIN b.user u ";
+
+    @Query(RESPONSE_PROJECTION + "WHERE b.id = :bookingId")
+    Optional<BookingResponseDTO> findResponseById(@Param("bookingId") int bookingId);
+
+    @Query(RESPONSE_PROJECTION + "WHERE u.id = :userId ORDER BY b.startTime ASC, b.id ASC")
+    List<BookingResponseDTO> findResponsesByUserId(@Param("userId") int userId);
+
+    // Exportación completa: se recorre con un cursor del servidor en lotes de EXPORT_FETCH_SIZE filas
+    String EXPORT_FETCH_SIZE = "1000";
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(RESPONSE_PROJECTION + "ORDER BY b.id ASC")
+    Stream<BookingResponseDTO> streamAllForExport();
+
+    // Paginación por clave (startTime, id): el coste no depende de lo profunda que sea la página.
+    // El Pageable solo aporta el límite; el orden lo fija la consulta.
+    @Query(RESPONSE_PROJECTION + "WHERE u.id = :userId AND b.startTime > :after " +
+            "ORDER BY b.startTime ASC, b.id ASC")
+    List<BookingResponseDTO> findUpcomingByUserId(@Param("userId") int userId,
+                                                  @Param("after") LocalDateTime after,
+                                                  Pageable pageable);
+
+    @Query(RESPONSE_PROJECTION + "WHERE u.id = :userId AND b.startTime > :after " +
+            "AND (b.startTime, b.id) > (:cursorStartTime, :cursorId) " +
+            "ORDER BY b.startTime ASC, b.id ASC")
+    List<BookingResponseDTO> findUpcomingByUserIdAfterCursor(@Param("userId") int userId,
+                                                             @Param("after") LocalDateTime after,
+                                                             @Param("cursorStartTime") LocalDateTime cursorStartTime,
+                                                             @Param("cursorId") int cursorId,
+                                                             Pageable pageable);
+
+    @Query(RESPONSE_PROJECTION + "ORDER BY b.startTime ASC, b.id ASC")
+    List<BookingResponseDTO> findAllOrderedByStartTime(Pageable pageable);
+
+    @Query(RESPONSE_PROJECTION + "WHERE (b.startTime, b.id) > (:cursorStartTime, :cursorId) " +
+            "ORDER BY b.startTime ASC, b.id ASC")
+    List<BookingResponseDTO> findAllOrderedByStartTimeAfterCursor(@Param("cursorStartTime") LocalDateTime cursorStartTime,
+                                                                  @Param("cursorId") int cursorId,
+                                                                  Pageable pageable);
 
 }
@@ -0,0 +1,25 @@
+package com.mc.rehearsal_rooms.repository;
+
+import com.mc.rehearsal_rooms.model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    // Solo las revocaciones de tokens que aún no han expirado
+    @Query("SELECT rt FROM RevokedToken rt WHERE rt.expiresAt > :now")
+    List<RevokedToken> findActive(@Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RevokedToken rt WHERE rt.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
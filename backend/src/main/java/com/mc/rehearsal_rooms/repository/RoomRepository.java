@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -20,4 +21,10 @@ public interface RoomRepository extends JpaRepository<Room, Integer> {
 
     @Query("SELECT DISTINCT r FROM Room r LEFT JOIN FETCH r.equipment WHERE r IN :rooms")
     List<Room> findAllWithEquipmentForGivenRooms(@Param("rooms") List<Room> rooms);
+
+    // La descripción es un large object de Postgres, que solo se puede leer dentro de una transacción;
+    // los índices en memoria llaman a este método al arrancar y desde tareas programadas, sin transacción propia
+    @Transactional(readOnly = true)
+    @Query("SELECT DISTINCT r FROM Room r LEFT JOIN FETCH r.equipment")
+    List<Room> findAllWithEquipment();
 }
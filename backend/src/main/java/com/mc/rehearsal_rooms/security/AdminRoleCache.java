@@ -0,0 +1,51 @@
+package com.mc.rehearsal_rooms.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mc.rehearsal_rooms.model.User;
+import com.mc.rehearsal_rooms.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Los roles viajan en el token, así que quitarle el rol de administrador a alguien no tendría efecto
+ * hasta que su token expire. Los tokens con ROLE_ADMIN se contrastan con este caché de vida corta
+ * (id de usuario -> sigue siendo admin), que consulta la base de datos como mucho una vez por TTL.
+ */
+@Component
+public class AdminRoleCache {
+
+    private final UserRepository userRepository;
+    private final Cache<Integer, Boolean> adminByUserId;
+
+    @Autowired
+    public AdminRoleCache(UserRepository userRepository,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.security.admin-check.ttl-ms:60000}") long ttlMs,
+                          @Value("${app.security.admin-check.max-size:10000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.adminByUserId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, adminByUserId, "adminRoles");
+    }
+
+    // La consulta va fuera del caché: un loader la ejecutaría dentro del lock del mapa y, con hilos
+    // virtuales, el hilo quedaría fijado a su portador durante toda la consulta
+    public boolean isAdmin(int userId) {
+        Boolean cached = adminByUserId.getIfPresent(userId);
+        if (cached != null) {
+            return cached;
+        }
+        boolean admin = userRepository.findById(userId).map(User::isAdmin).orElse(false);
+        adminByUserId.put(userId, admin);
+        return admin;
+    }
+}
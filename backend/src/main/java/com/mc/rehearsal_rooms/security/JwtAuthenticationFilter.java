@@ -1,4 +1,8 @@
 package com.mc.rehearsal_rooms.security;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -15,6 +19,10 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -27,6 +35,38 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private CustomUserDetailsService customUserDetailsService;
 
+    @Autowired
+    private AdminRoleCache adminRoleCache;
+
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Timer validVerifications;
+    private Timer invalidVerifications;
+
+    // Solo se mide la verificación de firma; los aciertos del caché aparecen en cache.gets{cache=verifiedTokens}
+    @PostConstruct
+    void registerMetrics() {
+        validVerifications = verificationTimer("valid");
+        invalidVerifications = verificationTimer("invalid");
+    }
+
+    private Timer verificationTimer(String result) {
+        return Timer.builder("auth.jwt.verify")
+                .description("JWT signature verification and claims parsing on verified-token cache misses")
+                .tag("result", result)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(10_000))
+                .register(meterRegistry);
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
@@ -34,11 +74,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromJWT(jwt);
-
-
-                UserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
+            UserPrincipal principal = StringUtils.hasText(jwt) ? authenticateToken(jwt) : null;
+            // También en los aciertos del caché: un token revocado sigue ahí hasta su exp
+            if (principal != null && !tokenRevocationList.isRevoked(principal.getTokenId())) {
+                UserDetails userDetails = withCurrentAdminRole(principal);
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -53,6 +92,47 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    // Un token ya verificado sale del caché; si no, se verifica la firma una vez y se guarda hasta su exp
+    private UserPrincipal authenticateToken(String jwt) {
+        UserPrincipal principal = verifiedTokenCache.get(jwt);
+        if (principal != null) {
+            return principal;
+        }
+        long verifyStart = System.nanoTime();
+        Optional<Claims> claims = tokenProvider.parseValidatedClaims(jwt);
+        (claims.isPresent() ? validVerifications : invalidVerifications)
+                .record(System.nanoTime() - verifyStart, TimeUnit.NANOSECONDS);
+        if (claims.isEmpty()) {
+            return null;
+        }
+        principal = resolvePrincipal(claims.get(), jwt);
+        verifiedTokenCache.put(jwt, principal, claims.get().getExpiration());
+        return principal;
+    }
+
+    // El usuario sale de los claims; solo los tokens antiguos (sin uid/roles) requieren ir a la base de datos
+    private UserPrincipal resolvePrincipal(Claims claims, String jwt) {
+        UserPrincipal principal = tokenProvider.getPrincipalFromClaims(claims);
+        if (principal == null) {
+            principal = (UserPrincipal) customUserDetailsService.loadUserByUsername(claims.getSubject());
+        }
+        if (principal.getTokenId() != null) {
+            return principal;
+        }
+        // Token anterior al jti: sin un id, el logout no podría revocarlo
+        return new UserPrincipal(principal.getId(), principal.getUsername(), null, principal.getRoles(),
+                TokenRevocationList.legacyTokenId(jwt), claims.getExpiration().toInstant());
+    }
+
+    private UserPrincipal withCurrentAdminRole(UserPrincipal principal) {
+        if (principal.isAdmin() && !adminRoleCache.isAdmin(principal.getId())) {
+            // El rol de administrador fue retirado después de emitir el token
+            return new UserPrincipal(principal.getId(), principal.getUsername(), null, List.of(UserPrincipal.ROLE_USER),
+                    principal.getTokenId(), principal.getTokenExpiresAt());
+        }
+        return principal;
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -8,17 +8,24 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 @Component
 public class JwtTokenProvider {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class);
 
+    // Claims propios: con ellos el filtro reconstruye el usuario sin ir a la base de datos
+    static final String USER_ID_CLAIM = "uid";
+    static final String ROLES_CLAIM = "roles";
+
     @Value("${app.jwt.secret}")
     private String jwtSecretString;
 
@@ -27,23 +34,34 @@ public class JwtTokenProvider {
 
     private SecretKey jwtSecretKey;
 
+    // El parser es inmutable y thread-safe: se construye una sola vez y se comparte entre peticiones
+    private JwtParser jwtParser;
+
     @PostConstruct
     protected void init() {
 
         this.jwtSecretKey = Keys.hmacShaKeyFor(jwtSecretString.getBytes());
+        this.jwtParser = Jwts.parser().verifyWith(jwtSecretKey).build();
+    }
+
+    public long getExpirationMs() {
+        return jwtExpirationInMs;
     }
 
     public String generateToken(Authentication authentication) {
-        UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
-        return generateTokenFromUsername(userPrincipal.getUsername());
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        return generateTokenFromUsername(userPrincipal.getUsername(), userPrincipal.getId(), userPrincipal.getRoles());
     }
 
-    public String generateTokenFromUsername(String username) {
+    public String generateTokenFromUsername(String username, int userId, Collection<String> roles) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationInMs);
 
         return Jwts.builder()
+                .id(UUID.randomUUID().toString()) // jti: permite revocar este token concreto
                 .subject(username)
+                .claim(USER_ID_CLAIM, userId)
+                .claim(ROLES_CLAIM, roles)
                 .issuedAt(now)
                 .expiration(expiryDate)
                 .signWith(jwtSecretKey, Jwts.SIG.HS512)
@@ -51,19 +69,28 @@ public class JwtTokenProvider {
     }
 
     public String getUsernameFromJWT(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(jwtSecretKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return jwtParser.parseSignedClaims(token).getPayload().getSubject();
+    }
 
-        return claims.getSubject();
+    // Null si el token es anterior a los claims uid/roles; en ese caso hay que cargar el usuario de la base de datos
+    public UserPrincipal getPrincipalFromClaims(Claims claims) {
+        Integer userId = claims.get(USER_ID_CLAIM, Integer.class);
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        if (userId == null || roles == null) {
+            return null;
+        }
+        return new UserPrincipal(userId, claims.getSubject(), null, roles.stream().map(String::valueOf).toList(),
+                claims.getId(), claims.getExpiration().toInstant());
     }
 
     public boolean validateToken(String authToken) {
+        return parseValidatedClaims(authToken).isPresent();
+    }
+
+    // Verifica la firma y la expiración una sola vez y devuelve los claims; vacío si el token no es válido
+    public Optional<Claims> parseValidatedClaims(String authToken) {
         try {
-            Jwts.parser().verifyWith(jwtSecretKey).build().parseSignedClaims(authToken);
-            return true;
+            return Optional.of(jwtParser.parseSignedClaims(authToken).getPayload());
         } catch (MalformedJwtException ex) {
             logger.error("Invalid JWT token: {}", ex.getMessage());
         } catch (ExpiredJwtException ex) {
@@ -76,6 +103,6 @@ public class JwtTokenProvider {
         catch (io.jsonwebtoken.security.SignatureException ex) {
             logger.error("JWT signature does not match locally computed signature: {}", ex.getMessage());
         }
-        return false;
+        return Optional.empty();
     }
 }
\ No newline at end of file
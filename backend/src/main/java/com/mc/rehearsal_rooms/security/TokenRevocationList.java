@@ -0,0 +1,159 @@
+package com.mc.rehearsal_rooms.security;
+
+import com.mc.rehearsal_rooms.PrimaryReads;
+import com.mc.rehearsal_rooms.model.RevokedToken;
+import com.mc.rehearsal_rooms.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Lista de access tokens revocados (por jti). Casi ningún token está revocado, así que cada petición
+ * consulta primero un filtro de Bloom en memoria; solo si el filtro da un posible positivo se mira el
+ * conjunto exacto. La tabla revoked_tokens es la fuente de verdad: el filtro se reconstruye
+ * periódicamente desde ella (así llegan las revocaciones de otras instancias) y en cada
+ * reconstrucción se descartan los tokens que ya expiraron.
+ * Los tokens emitidos antes de añadir el jti se revocan por un id derivado del propio token (ver legacyTokenId).
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    // El filtro se dimensiona con holgura para las revocaciones que lleguen antes de la siguiente reconstrucción
+    private static final int MIN_EXPECTED_REVOCATIONS = 1024;
+
+    private static final MessageDigest SHA_256;
+
+    static {
+        try {
+            SHA_256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final double falsePositiveRate;
+    private final Counter revokedHits;
+    private final Counter falsePositives;
+
+    // Serializa revocaciones locales y reconstrucciones para que una revocación no se pierda en el cambio
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public TokenRevocationList(RevokedTokenRepository revokedTokenRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.security.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.falsePositiveRate = falsePositiveRate;
+        this.snapshot = new Snapshot(List.of(), falsePositiveRate);
+        Gauge.builder("auth.revoked.tokens", this, list -> list.snapshot.revoked.size())
+                .description("Revoked access tokens that have not expired yet")
+                .register(meterRegistry);
+        // Si los falsos positivos crecen, el filtro está subdimensionado para las revocaciones reales
+        this.revokedHits = bloomPositives(meterRegistry, "revoked");
+        this.falsePositives = bloomPositives(meterRegistry, "false_positive");
+    }
+
+    private static Counter bloomPositives(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("auth.revocation.bloom.positives")
+                .description("Revocation checks that passed the Bloom filter and needed the exact set")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null) {
+            return false; // Tokens emitidos antes de incluir jti
+        }
+        Snapshot current = snapshot;
+        if (!current.filter.mightContain(jti)) {
+            return false;
+        }
+        boolean revoked = current.revoked.containsKey(jti);
+        (revoked ? revokedHits : falsePositives).increment();
+        return revoked;
+    }
+
+    public void revoke(String jti, Instant expiresAt) {
+        if (jti == null || !expiresAt.isAfter(Instant.now())) {
+            return; // Ya no es válido; no hace falta recordarlo
+        }
+        revokedTokenRepository.save(new RevokedToken(jti, expiresAt));
+        lock.lock();
+        try {
+            // Primero el conjunto exacto: quien vea el bit en el filtro ya encuentra la entrada
+            snapshot.revoked.put(jti, expiresAt);
+            snapshot.filter.add(jti);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Id de revocación para un token sin jti: los primeros 128 bits del SHA-256 del token completo, con
+     * formato de UUID para que quepa en revoked_tokens.jti. Solo hace falta durante la migración: los
+     * tokens sin jti dejaron de emitirse y el último caduca app.jwt.expiration-ms (15 min por defecto)
+     * después del despliegue que añadió el jti. Pasado ese plazo este camino ya no se usa.
+     */
+    public static String legacyTokenId(String token) {
+        byte[] hash;
+        try {
+            hash = ((MessageDigest) SHA_256.clone()).digest(token.getBytes(StandardCharsets.US_ASCII));
+        } catch (CloneNotSupportedException ex) {
+            throw new IllegalStateException("SHA-256 digest is not cloneable", ex);
+        }
+        ByteBuffer bits = ByteBuffer.wrap(hash);
+        return new UUID(bits.getLong(), bits.getLong()).toString();
+    }
+
+    @PostConstruct
+    @Scheduled(initialDelayString = "${app.security.revocation.rebuild-interval-ms:60000}",
+            fixedDelayString = "${app.security.revocation.rebuild-interval-ms:60000}")
+    public void rebuild() {
+        Instant now = Instant.now();
+        int purged = revokedTokenRepository.deleteExpired(now);
+        lock.lock();
+        try {
+            snapshot = new Snapshot(PrimaryReads.call(() -> revokedTokenRepository.findActive(now)), falsePositiveRate);
+        } finally {
+            lock.unlock();
+        }
+        logger.debug("Token revocation list rebuilt with {} entries ({} expired purged)", snapshot.revoked.size(), purged);
+    }
+
+    private static final class Snapshot {
+        private final BloomFilter filter;
+        private final Map<String, Instant> revoked;
+
+        Snapshot(List<RevokedToken> tokens, double falsePositiveRate) {
+            this.filter = new BloomFilter(Math.max(tokens.size() * 2, MIN_EXPECTED_REVOCATIONS), falsePositiveRate);
+            this.revoked = new ConcurrentHashMap<>(Math.max(tokens.size() * 2, 16));
+            for (RevokedToken token : tokens) {
+                revoked.put(token.getJti(), token.getExpiresAt());
+                filter.add(token.getJti());
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.mc.rehearsal_rooms.security;
+
+import com.mc.rehearsal_rooms.model.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Usuario autenticado. En el login se construye desde la base de datos (con contraseña); en cada
+ * petición posterior se reconstruye a partir de los claims del JWT, sin consultar la base de datos.
+ */
+public class UserPrincipal implements UserDetails {
+
+    public static final String ROLE_USER = "ROLE_USER";
+    public static final String ROLE_ADMIN = "ROLE_ADMIN";
+
+    private final int id;
+    private final String username;
+    private final String password;
+    private final List<GrantedAuthority> authorities;
+    // jti y exp del access token con el que se autenticó la petición; null si no viene de un token
+    private final String tokenId;
+    private final Instant tokenExpiresAt;
+
+    public UserPrincipal(int id, String username, String password, Collection<String> roles) {
+        this(id, username, password, roles, null, null);
+    }
+
+    public UserPrincipal(int id, String username, String password, Collection<String> roles,
+                         String tokenId, Instant tokenExpiresAt) {
+        this.id = id;
+        this.username = username;
+        this.password = password;
+        List<GrantedAuthority> grantedAuthorities = new ArrayList<>(roles.size());
+        roles.forEach(role -> grantedAuthorities.add(new SimpleGrantedAuthority(role)));
+        this.authorities = Collections.unmodifiableList(grantedAuthorities);
+        this.tokenId = tokenId;
+        this.tokenExpiresAt = tokenExpiresAt;
+    }
+
+    public static UserPrincipal create(User user) {
+        List<String> roles = user.isAdmin() ? List.of(ROLE_USER, ROLE_ADMIN) : List.of(ROLE_USER);
+        return new UserPrincipal(user.getId(), user.getUsername(), user.getPassword(), roles);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public boolean isAdmin() {
+        return authorities.stream().anyMatch(authority -> ROLE_ADMIN.equals(authority.getAuthority()));
+    }
+
+    public List<String> getRoles() {
+        return authorities.stream().map(GrantedAuthority::getAuthority).toList();
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public Instant getTokenExpiresAt() {
+        return tokenExpiresAt;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+}
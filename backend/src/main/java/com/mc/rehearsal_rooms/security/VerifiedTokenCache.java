@@ -0,0 +1,105 @@
+package com.mc.rehearsal_rooms.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokens ya verificados, indexados por el SHA-256 del token completo (firma incluida), con el
+ * principal que se obtuvo de sus claims. Un token repetido no vuelve a verificar la firma HMAC ni a
+ * parsear los claims. Cada entrada vence en el exp del token, así que nunca se acepta uno expirado.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    // Se clona un prototipo por llamada: con hilos virtuales un ThreadLocal crearía un MessageDigest por petición
+    private static final MessageDigest SHA_256;
+
+    static {
+        try {
+            SHA_256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    private final Cache<String, VerifiedToken> tokens;
+
+    @Autowired
+    public VerifiedTokenCache(MeterRegistry meterRegistry,
+                              @Value("${app.security.token-cache.max-size:10000}") long maxSize) {
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+                        return value.remainingNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return value.remainingNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, tokens, "verifiedTokens");
+    }
+
+    // Null si el token no se ha verificado antes (o ya expiró)
+    public UserPrincipal get(String token) {
+        VerifiedToken verified = tokens.getIfPresent(digest(token));
+        if (verified == null || verified.expiresAtMillis <= System.currentTimeMillis()) {
+            return null;
+        }
+        return verified.principal;
+    }
+
+    public void put(String token, UserPrincipal principal, Date expiration) {
+        if (expiration == null || expiration.getTime() <= System.currentTimeMillis()) {
+            return;
+        }
+        tokens.put(digest(token), new VerifiedToken(principal, expiration.getTime()));
+    }
+
+    private static String digest(String token) {
+        byte[] hash;
+        try {
+            hash = ((MessageDigest) SHA_256.clone()).digest(token.getBytes(StandardCharsets.US_ASCII));
+        } catch (CloneNotSupportedException ex) {
+            throw new IllegalStateException("SHA-256 digest is not cloneable", ex);
+        }
+        return Base64.getEncoder().encodeToString(hash);
+    }
+
+    private static final class VerifiedToken {
+        private final UserPrincipal principal;
+        private final long expiresAtMillis;
+
+        VerifiedToken(UserPrincipal principal, long expiresAtMillis) {
+            this.principal = principal;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        long remainingNanos() {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, expiresAtMillis - System.currentTimeMillis()));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.mc.rehearsal_rooms.service;
+
+import com.mc.rehearsal_rooms.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Posición (startTime, id) de la última reserva devuelta, codificada como texto opaco para el cliente
+final class BookingCursor {
+
+    private final LocalDateTime startTime;
+    private final int id;
+
+    BookingCursor(LocalDateTime startTime, int id) {
+        this.startTime = startTime;
+        this.id = id;
+    }
+
+    LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    int getId() {
+        return id;
+    }
+
+    String encode() {
+        String raw = startTime + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static BookingCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new BookingCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Integer.parseInt(raw.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException ex) {
+            throw new InvalidCursorException("Invalid pagination cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.mc.rehearsal_rooms.service;
+
+import com.mc.rehearsal_rooms.dto.BookingExportFormat;
+
+import java.io.OutputStream;
+
+public interface BookingExportService {
+    long exportBookings(BookingExportFormat format, OutputStream outputStream); // Devuelve el número de reservas escritas
+}
@@ -0,0 +1,134 @@
+package com.mc.rehearsal_rooms.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.mc.rehearsal_rooms.dto.BookingExportFormat;
+import com.mc.rehearsal_rooms.dto.BookingResponseDTO;
+import com.mc.rehearsal_rooms.repository.BookingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exportación completa de reservas. Las filas se leen con un cursor del servidor (fetch size) como
+ * proyecciones DTO, así que el contexto de persistencia no acumula entidades, y se escriben según
+ * llegan: la memoria usada no depende del número de reservas.
+ */
+@Service
+public class BookingExportServiceImpl implements BookingExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingExportServiceImpl.class);
+
+    private static final String CSV_HEADER = "id,roomId,roomName,userId,username,startTime,endTime,createdAt,totalCost";
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final BookingRepository bookingRepository;
+    private final ObjectWriter jsonWriter;
+
+    @Autowired
+    public BookingExportServiceImpl(BookingRepository bookingRepository, ObjectMapper objectMapper) {
+        this.bookingRepository = bookingRepository;
+        this.jsonWriter = objectMapper.writer();
+    }
+
+    @Override
+    @Transactional(readOnly = true) // Postgres solo respeta el fetch size dentro de una transacción
+    public long exportBookings(BookingExportFormat format, OutputStream outputStream) {
+        long started = System.nanoTime();
+        long rows = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        try (Stream<BookingResponseDTO> bookings = bookingRepository.streamAllForExport()) {
+            if (format == BookingExportFormat.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+            Iterator<BookingResponseDTO> iterator = bookings.iterator();
+            while (iterator.hasNext()) {
+                BookingResponseDTO booking = iterator.next();
+                if (format == BookingExportFormat.CSV) {
+                    writeCsvRow(writer, booking);
+                } else {
+                    writeJsonLine(writer, booking);
+                }
+                rows++;
+            }
+            writer.flush();
+        } catch (IOException ex) {
+            // Normalmente el cliente cerró la conexión a mitad de la descarga
+            throw new UncheckedIOException("Booking export interrupted after " + rows + " rows", ex);
+        }
+        logger.info("Exported {} bookings as {} in {} ms", rows, format, (System.nanoTime() - started) / 1_000_000);
+        return rows;
+    }
+
+    private void writeJsonLine(Writer writer, BookingResponseDTO booking) throws IOException {
+        try {
+            writer.write(jsonWriter.writeValueAsString(booking));
+        } catch (JsonProcessingException ex) {
+            throw new IOException("Could not serialize booking " + booking.getId(), ex);
+        }
+        writer.write('\n');
+    }
+
+    private static void writeCsvRow(Writer writer, BookingResponseDTO booking) throws IOException {
+        writer.write(Integer.toString(booking.getId()));
+        writer.write(',');
+        writer.write(Integer.toString(booking.getRoomId()));
+        writer.write(',');
+        writeCsvField(writer, booking.getRoomName());
+        writer.write(',');
+        writer.write(Integer.toString(booking.getUserId()));
+        writer.write(',');
+        writeCsvField(writer, booking.getUsername());
+        writer.write(',');
+        writer.write(String.valueOf(booking.getStartTime()));
+        writer.write(',');
+        writer.write(String.valueOf(booking.getEndTime()));
+        writer.write(',');
+        writer.write(String.valueOf(booking.getCreatedAt()));
+        writer.write(',');
+        writer.write(booking.getTotalCost().toPlainString());
+        writer.write('\n');
+    }
+
+    // RFC 4180: se entrecomillan los campos con comas, comillas o saltos de línea.
+    // Los nombres de usuario y de sala son texto libre: un valor que empieza como fórmula se prefija
+    // con ' para que una hoja de cálculo lo muestre como texto en lugar de ejecutarlo
+    static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (!value.isEmpty() && isFormulaStart(value.charAt(0))) {
+            value = "'" + value;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static boolean isFormulaStart(char c) {
+        return c == '=' || c == '+' || c == '-' || c == '@' || c == '\t' || c == '\r';
+    }
+}
@@ -0,0 +1,317 @@
+package com.mc.rehearsal_rooms.service;
+
+import com.mc.rehearsal_rooms.PrimaryReads;
+import com.mc.rehearsal_rooms.dto.BookingSlotDTO;
+import com.mc.rehearsal_rooms.repository.BookingRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice en memoria de las reservas vigentes, agrupadas por sala y ordenadas por hora de inicio.
+ * Las reservas de una misma sala no se solapan entre sí, así que ordenarlas por inicio también
+ * las ordena por fin y basta mirar la reserva anterior al final pedido para detectar un conflicto.
+ * Además cada sala tiene un mapa de bits de ocupación en franjas de 15 minutos para responder
+ * búsquedas sobre muchas salas con operaciones de bits.
+ * La base de datos sigue siendo la fuente de verdad: el índice se reconstruye al arrancar y se
+ * verifica periódicamente contra la tabla bookings.
+ */
+@Component
+public class BookingIntervalIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingIntervalIndex.class);
+
+    private static final int SLOT_MINUTES = 15;
+    private static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+
+    private final BookingRepository bookingRepository;
+    private final int occupancyDays;
+
+    // Las altas/bajas toman el lock de lectura; la reconstrucción el de escritura para no perder cambios
+    private final ReentrantReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    private volatile Map<Integer, RoomTimeline> timelines = new ConcurrentHashMap<>();
+
+    // Inicio de la franja 0 de los mapas de ocupación; cada sala guarda el que usó al crearse
+    private volatile LocalDateTime occupancyOrigin = horizon().toLocalDate().atStartOfDay();
+
+    @Autowired
+    public BookingIntervalIndex(BookingRepository bookingRepository,
+                                @Value("${app.booking-index.occupancy-days:120}") int occupancyDays) {
+        this.bookingRepository = bookingRepository;
+        this.occupancyDays = occupancyDays;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        rebuildLock.writeLock().lock();
+        try {
+            List<BookingSlotDTO> slots = PrimaryReads.call(() -> bookingRepository.findSlotsEndingAfter(horizon()));
+            LocalDateTime origin = horizon().toLocalDate().atStartOfDay();
+            Map<Integer, RoomTimeline> rebuilt = new ConcurrentHashMap<>();
+            for (BookingSlotDTO slot : slots) {
+                RoomTimeline timeline = rebuilt.computeIfAbsent(slot.getRoomId(), roomId -> new RoomTimeline(origin));
+                BookingSlotDTO previous = timeline.slots.put(slot.getStartTime(), slot);
+                if (previous != null) {
+                    logger.warn("Bookings {} and {} of room {} start at the same time", previous.getBookingId(), slot.getBookingId(), slot.getRoomId());
+                }
+                markOccupied(timeline, slot);
+            }
+            this.occupancyOrigin = origin;
+            this.timelines = rebuilt;
+            logger.info("Booking interval index built with {} bookings in {} rooms", slots.size(), rebuilt.size());
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    public boolean overlaps(int roomId, LocalDateTime startTime, LocalDateTime endTime) {
+        RoomTimeline timeline = timelines.get(roomId);
+        if (timeline == null) {
+            return false;
+        }
+        Map.Entry<LocalDateTime, BookingSlotDTO> previous = timeline.slots.lowerEntry(endTime);
+        return previous != null && previous.getValue().getEndTime().isAfter(startTime);
+    }
+
+    public List<BookingSlotDTO> findOverlapping(int roomId, LocalDateTime startTime, LocalDateTime endTime) {
+        RoomTimeline timeline = timelines.get(roomId);
+        List<BookingSlotDTO> result = new ArrayList<>();
+        if (timeline == null) {
+            return result;
+        }
+        Map.Entry<LocalDateTime, BookingSlotDTO> previous = timeline.slots.lowerEntry(startTime);
+        if (previous != null && previous.getValue().getEndTime().isAfter(startTime)) {
+            result.add(previous.getValue());
+        }
+        result.addAll(timeline.slots.subMap(startTime, true, endTime, false).values());
+        return result;
+    }
+
+    /**
+     * Comprueba con el mapa de bits si la sala está libre. Una franja ocupada solo es dudosa cuando
+     * el intervalo pedido no empieza o termina en el borde de una franja; en ese caso, o si el
+     * intervalo queda fuera del mapa, se confirma con el índice exacto.
+     */
+    public boolean isFree(int roomId, LocalDateTime startTime, LocalDateTime endTime) {
+        RoomTimeline timeline = timelines.get(roomId);
+        if (timeline == null) {
+            return true;
+        }
+        LocalDateTime origin = timeline.origin;
+        long firstMinute = Duration.between(origin, startTime).toMinutes();
+        long endMinute = Duration.between(origin, endTime).toMinutes();
+        long lastSlot = Math.floorDiv(endMinute - 1, SLOT_MINUTES);
+        if (firstMinute < 0 || lastSlot >= (long) occupancyDays * SLOTS_PER_DAY) {
+            return !overlaps(roomId, startTime, endTime);
+        }
+        if (!timeline.anyOccupied((int) (firstMinute / SLOT_MINUTES), (int) lastSlot)) {
+            return true;
+        }
+        boolean aligned = isSlotBoundary(origin, startTime) && isSlotBoundary(origin, endTime);
+        return !aligned && !overlaps(roomId, startTime, endTime);
+    }
+
+    private static boolean isSlotBoundary(LocalDateTime origin, LocalDateTime time) {
+        return Duration.between(origin, time).toNanos() % Duration.ofMinutes(SLOT_MINUTES).toNanos() == 0;
+    }
+
+    public void add(BookingSlotDTO slot) {
+        rebuildLock.readLock().lock();
+        try {
+            RoomTimeline timeline = timelines.computeIfAbsent(slot.getRoomId(), roomId -> new RoomTimeline(occupancyOrigin));
+            timeline.lock.lock();
+            try {
+                timeline.slots.put(slot.getStartTime(), slot);
+                markOccupied(timeline, slot);
+            } finally {
+                timeline.lock.unlock();
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    public void remove(BookingSlotDTO slot) {
+        rebuildLock.readLock().lock();
+        try {
+            RoomTimeline timeline = timelines.get(slot.getRoomId());
+            if (timeline == null) {
+                return;
+            }
+            timeline.lock.lock();
+            try {
+                if (timeline.slots.remove(slot.getStartTime(), slot)) {
+                    clearOccupied(timeline, slot);
+                    // Las reservas vecinas pueden compartir la primera o la última franja
+                    Map.Entry<LocalDateTime, BookingSlotDTO> previous = timeline.slots.lowerEntry(slot.getStartTime());
+                    Map.Entry<LocalDateTime, BookingSlotDTO> next = timeline.slots.ceilingEntry(slot.getStartTime());
+                    if (previous != null) {
+                        markOccupied(timeline, previous.getValue());
+                    }
+                    if (next != null) {
+                        markOccupied(timeline, next.getValue());
+                    }
+                }
+            } finally {
+                timeline.lock.unlock();
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    // Solo se aplica al índice lo que realmente llegó a la base de datos
+    public void addAfterCommit(BookingSlotDTO slot) {
+        runAfterCommit(() -> add(slot));
+    }
+
+    public void removeAfterCommit(BookingSlotDTO slot) {
+        runAfterCommit(() -> remove(slot));
+    }
+
+    /**
+     * Compara el índice con la tabla bookings. Si hay diferencias (por ejemplo reservas creadas
+     * por otra instancia) las registra y reconstruye el índice desde la base de datos. También lo
+     * reconstruye cuando cambia el día, para que los mapas de ocupación sigan empezando hoy.
+     */
+    @Scheduled(initialDelayString = "${app.booking-index.verify-interval-ms:300000}",
+            fixedDelayString = "${app.booking-index.verify-interval-ms:300000}")
+    public boolean verify() {
+        rebuildLock.writeLock().lock();
+        try {
+            LocalDateTime horizon = horizon();
+            Set<BookingSlotDTO> expected = new HashSet<>(PrimaryReads.call(() -> bookingRepository.findSlotsEndingAfter(horizon)));
+            Set<BookingSlotDTO> indexed = new HashSet<>();
+            for (RoomTimeline timeline : timelines.values()) {
+                for (BookingSlotDTO slot : timeline.slots.values()) {
+                    if (slot.getEndTime().isAfter(horizon)) {
+                        indexed.add(slot);
+                    }
+                }
+            }
+
+            Set<BookingSlotDTO> missing = new HashSet<>(expected);
+            missing.removeAll(indexed);
+            Set<BookingSlotDTO> stale = new HashSet<>(indexed);
+            stale.removeAll(expected);
+
+            if (missing.isEmpty() && stale.isEmpty()) {
+                logger.debug("Booking interval index is consistent ({} bookings)", expected.size());
+                if (!occupancyOrigin.toLocalDate().equals(horizon.toLocalDate())) {
+                    rebuild();
+                } else {
+                    timelines.values().forEach(timeline ->
+                            timeline.slots.values().removeIf(slot -> !slot.getEndTime().isAfter(horizon)));
+                }
+                return true;
+            }
+            logger.warn("Booking interval index out of sync: {} missing, {} stale. Rebuilding.", missing.size(), stale.size());
+            rebuild();
+            return false;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    // Las reservas que ya terminaron no pueden entrar en conflicto con una nueva
+    private LocalDateTime horizon() {
+        return LocalDateTime.now(BookingServiceImpl.BUSINESS_ZONE_ID);
+    }
+
+    private void markOccupied(RoomTimeline timeline, BookingSlotDTO slot) {
+        int[] range = slotRange(timeline, slot);
+        if (range != null) {
+            timeline.setOccupied(range[0], range[1], true);
+        }
+    }
+
+    private void clearOccupied(RoomTimeline timeline, BookingSlotDTO slot) {
+        int[] range = slotRange(timeline, slot);
+        if (range != null) {
+            timeline.setOccupied(range[0], range[1], false);
+        }
+    }
+
+    // Franjas [primera, última] que toca la reserva, recortadas al periodo cubierto por el mapa
+    private int[] slotRange(RoomTimeline timeline, BookingSlotDTO slot) {
+        LocalDateTime origin = timeline.origin;
+        long first = Math.floorDiv(Duration.between(origin, slot.getStartTime()).toMinutes(), SLOT_MINUTES);
+        long last = Math.floorDiv(Duration.between(origin, slot.getEndTime()).toMinutes() - 1, SLOT_MINUTES);
+        long maxSlot = (long) occupancyDays * SLOTS_PER_DAY - 1;
+        if (last < 0 || first > maxSlot) {
+            return null;
+        }
+        return new int[]{(int) Math.max(first, 0), (int) Math.min(last, maxSlot)};
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private final class RoomTimeline {
+        private final LocalDateTime origin;
+        private final ConcurrentSkipListMap<LocalDateTime, BookingSlotDTO> slots = new ConcurrentSkipListMap<>();
+        private final AtomicLongArray occupancy = new AtomicLongArray((occupancyDays * SLOTS_PER_DAY + 63) / 64);
+        // Serializa las modificaciones de una sala; las lecturas no toman el lock
+        private final ReentrantLock lock = new ReentrantLock();
+
+        RoomTimeline(LocalDateTime origin) {
+            this.origin = origin;
+        }
+
+        boolean anyOccupied(int firstSlot, int lastSlot) {
+            for (int word = firstSlot >>> 6; word <= lastSlot >>> 6; word++) {
+                if ((occupancy.get(word) & wordMask(word, firstSlot, lastSlot)) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void setOccupied(int firstSlot, int lastSlot, boolean occupied) {
+            for (int word = firstSlot >>> 6; word <= lastSlot >>> 6; word++) {
+                long mask = wordMask(word, firstSlot, lastSlot);
+                if (occupied) {
+                    occupancy.getAndUpdate(word, bits -> bits | mask);
+                } else {
+                    occupancy.getAndUpdate(word, bits -> bits & ~mask);
+                }
+            }
+        }
+
+        private long wordMask(int word, int firstSlot, int lastSlot) {
+            int from = Math.max(firstSlot, word << 6) & 63;
+            int to = Math.min(lastSlot, (word << 6) + 63) & 63;
+            return (-1L >>> (63 - to)) & (-1L << from);
+        }
+    }
+}
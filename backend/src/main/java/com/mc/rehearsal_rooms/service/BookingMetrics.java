@@ -0,0 +1,89 @@
+package com.mc.rehearsal_rooms.service;
+
+import com.mc.rehearsal_rooms.exception.BookingConflictException;
+import com.mc.rehearsal_rooms.exception.InvalidDateTimeRangeException;
+import com.mc.rehearsal_rooms.exception.RoomBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Tiempos por fase de createBooking y reservas rechazadas; los medidores se registran una vez al arrancar
+@Component
+public class BookingMetrics {
+
+    enum Phase {
+        USER_LOOKUP("user_lookup"),
+        ROOM_LOOKUP("room_lookup"),
+        VALIDATION("validation"),
+        ADMISSION("admission"), // Espera por el lock de la sala (RoomAdmission)
+        OVERLAP_CHECK("overlap_check"),
+        INSERT("insert");
+
+        private final String tag;
+
+        Phase(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final Map<Phase, Timer> phaseTimers = new EnumMap<>(Phase.class);
+    private final Counter conflicts;
+    private final Counter validationFailures;
+    private final Counter busyRooms;
+
+    @Autowired
+    public BookingMetrics(MeterRegistry meterRegistry) {
+        for (Phase phase : Phase.values()) {
+            phaseTimers.put(phase, Timer.builder("booking.create.phase")
+                    .description("Time spent in each phase of a single booking creation")
+                    .tag("phase", phase.tag)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .publishPercentileHistogram()
+                    // Las fases en memoria duran microsegundos; los buckets por defecto empiezan en 1 ms
+                    .minimumExpectedValue(Duration.ofNanos(10_000))
+                    .register(meterRegistry));
+        }
+        conflicts = rejections(meterRegistry, "conflict");
+        validationFailures = rejections(meterRegistry, "validation");
+        busyRooms = rejections(meterRegistry, "room_busy");
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("booking.create.rejected")
+                .description("Booking requests rejected before being stored")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    // Registra la fase que empezó en startNanos y devuelve el inicio de la siguiente
+    long record(Phase phase, long startNanos) {
+        long now = System.nanoTime();
+        phaseTimers.get(phase).record(now - startNanos, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+    // Cuenta los conflictos, los horarios inválidos y las esperas agotadas por el turno de la sala
+    // sin cambiar la excepción que recibe el cliente
+    <T> T countRejections(Supplier<T> creation) {
+        try {
+            return creation.get();
+        } catch (BookingConflictException ex) {
+            conflicts.increment();
+            throw ex;
+        } catch (InvalidDateTimeRangeException ex) {
+            validationFailures.increment();
+            throw ex;
+        } catch (RoomBusyException ex) {
+            busyRooms.increment();
+            throw ex;
+        }
+    }
+}
@@ -1,18 +1,25 @@
 package com.mc.rehearsal_rooms.service;
 
+import com.mc.rehearsal_rooms.dto.AvailabilitySlotDTO;
+import com.mc.rehearsal_rooms.dto.BookingQuoteDTO;
 import com.mc.rehearsal_rooms.dto.BookingRequestDTO;
 import com.mc.rehearsal_rooms.dto.BookingResponseDTO;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
-
+import com.mc.rehearsal_rooms.dto.CursorPageDTO;
+import com.mc.rehearsal_rooms.dto.RecurringBookingRequestDTO;
+import com.mc.rehearsal_rooms.security.UserPrincipal;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
 public interface BookingService {
-    BookingResponseDTO createBooking(BookingRequestDTO bookingRequestDTO, String authenticatedUsername);
+    BookingResponseDTO createBooking(BookingRequestDTO bookingRequestDTO, UserPrincipal principal);
+    List<BookingResponseDTO> createBookings(List<BookingRequestDTO> bookingRequestDTOs, UserPrincipal principal);
+    List<BookingResponseDTO> createRecurringBooking(RecurringBookingRequestDTO recurringBookingRequestDTO, UserPrincipal principal);
+    List<BookingQuoteDTO> quoteBookings(List<BookingRequestDTO> bookingRequestDTOs); // Precios sin crear reservas
     Optional<BookingResponseDTO> getBookingById(int bookingId);
     List<BookingResponseDTO> getBookingsByUserId(int userId); // Para un admin ver reservas de un usuario
-    List<BookingResponseDTO> getMyBookings(String authenticatedUsername, Pageable pageable);
-    Page<BookingResponseDTO> getAllBookings(Pageable pageable); // Para un admin
-    boolean cancelBooking(int bookingId, String authenticatedUsername);
+    CursorPageDTO<BookingResponseDTO> getMyBookings(UserPrincipal principal, String cursor, int size);
+    CursorPageDTO<BookingResponseDTO> getAllBookings(String cursor, int size); // Para un admin
+    boolean cancelBooking(int bookingId, UserPrincipal principal);
+    List<AvailabilitySlotDTO> getRoomAvailability(int roomId, Instant from, Instant to);
 }
@@ -1,29 +1,48 @@
 package com.mc.rehearsal_rooms.service;
 
+import com.mc.rehearsal_rooms.PrimaryReads;
+import com.mc.rehearsal_rooms.ReadYourWritesTracker;
+import com.mc.rehearsal_rooms.dto.AvailabilitySlotDTO;
+import com.mc.rehearsal_rooms.dto.BookingQuoteDTO;
 import com.mc.rehearsal_rooms.dto.BookingRequestDTO;
 import com.mc.rehearsal_rooms.dto.BookingResponseDTO;
+import com.mc.rehearsal_rooms.dto.BookingSlotDTO;
+import com.mc.rehearsal_rooms.dto.CursorPageDTO;
+import com.mc.rehearsal_rooms.dto.RecurringBookingRequestDTO;
 import com.mc.rehearsal_rooms.exception.ResourceNotFoundException;
 import com.mc.rehearsal_rooms.exception.BookingConflictException;
 import com.mc.rehearsal_rooms.exception.InvalidDateTimeRangeException;
 import com.mc.rehearsal_rooms.model.Booking;
+import com.mc.rehearsal_rooms.model.CentsConverter;
 import com.mc.rehearsal_rooms.model.Room;
 import com.mc.rehearsal_rooms.model.User;
 import com.mc.rehearsal_rooms.repository.BookingRepository;
 import com.mc.rehearsal_rooms.repository.RoomRepository;
 import com.mc.rehearsal_rooms.repository.UserRepository;
+import com.mc.rehearsal_rooms.security.UserPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.Pageable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.time.ZoneId;
 
@@ -34,107 +53,313 @@ public class BookingServiceImpl implements BookingService {
     private final BookingRepository bookingRepository;
     private final RoomRepository roomRepository;
     private final UserRepository userRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final RoomAdmission roomAdmission;
+    private final PricingEngine pricingEngine;
+    private final BookingMetrics bookingMetrics;
+    private final ReadYourWritesTracker readYourWrites;
 
 
-    private static final ZoneId BUSINESS_ZONE_ID = ZoneId.of("America/Chihuahua");
+    static final ZoneId BUSINESS_ZONE_ID = ZoneId.of("America/Chihuahua");
 
 
     private static final LocalTime EARLIEST_BOOKING_TIME = LocalTime.of(10, 0);
     private static final LocalTime LATEST_BOOKING_END_TIME = LocalTime.of(23, 0);
 
+    // Límite de la ventana de disponibilidad que se puede consultar de una vez
+    private static final Duration MAX_AVAILABILITY_RANGE = Duration.ofDays(93);
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // SQLSTATE de Postgres para violaciones de restricciones de exclusión
+    private static final String EXCLUSION_VIOLATION_SQL_STATE = "23P01";
+    private static final String BOOKING_CONFLICT_MESSAGE = "La sala ya ha sido reservada para la hora seleccionada, por favor elija otro horario.";
+
     @Autowired
     public BookingServiceImpl(BookingRepository bookingRepository,
                               RoomRepository roomRepository,
-                              UserRepository userRepository) {
+                              UserRepository userRepository,
+                              BookingIntervalIndex bookingIntervalIndex,
+                              RoomAdmission roomAdmission,
+                              PricingEngine pricingEngine,
+                              BookingMetrics bookingMetrics,
+                              ReadYourWritesTracker readYourWrites) {
         this.bookingRepository = bookingRepository;
         this.roomRepository = roomRepository;
         this.userRepository = userRepository;
+        this.bookingIntervalIndex = bookingIntervalIndex;
+        this.roomAdmission = roomAdmission;
+        this.pricingEngine = pricingEngine;
+        this.bookingMetrics = bookingMetrics;
+        this.readYourWrites = readYourWrites;
     }
 
-    private BookingResponseDTO convertToResponseDTO(Booking booking) {
+    // El usuario de una reserva recién creada es una referencia sin cargar; su nombre sale del principal
+    static BookingResponseDTO convertToResponseDTO(Booking booking, String username) {
         return new BookingResponseDTO(
                 booking.getId(),
                 booking.getRoom().getId(),
                 booking.getRoom().getName(),
                 booking.getUser().getId(),
-                booking.getUser().getUsername(),
+                username,
                 booking.getStartTime(),
                 booking.getEndTime(),
                 booking.getCreatedAt(),
-                booking.getTotalCost()
+                booking.getTotalCostCents()
         );
     }
 
-    @Override
-    @Transactional
-    public BookingResponseDTO createBooking(BookingRequestDTO bookingRequestDTO, String authenticatedUsername) {
-        User user = userRepository.findByUsername(authenticatedUsername)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "username", authenticatedUsername));
-
-        Room room = roomRepository.findById(bookingRequestDTO.getRoomId())
-                .orElseThrow(() -> new ResourceNotFoundException("Room", "id", bookingRequestDTO.getRoomId()));
+    private BookingSlotDTO toSlot(Booking booking) {
+        return new BookingSlotDTO(
+                booking.getId(),
+                booking.getRoom().getId(),
+                booking.getStartTime(),
+                booking.getEndTime()
+        );
+    }
 
-        LocalDateTime requestLocalStartTime = LocalDateTime.ofInstant(bookingRequestDTO.getStartTime(), BUSINESS_ZONE_ID);
-        LocalDateTime requestLocalEndTime = LocalDateTime.ofInstant(bookingRequestDTO.getEndTime(), BUSINESS_ZONE_ID);
+    private boolean isBookingOverlap(DataIntegrityViolationException ex) {
+        return ex.getMostSpecificCause() instanceof SQLException sqlException
+                && EXCLUSION_VIOLATION_SQL_STATE.equals(sqlException.getSQLState());
+    }
 
-        if (requestLocalStartTime.isAfter(requestLocalEndTime) || requestLocalStartTime.isEqual(requestLocalEndTime)) {
+    // Reglas de horario comunes a las reservas individuales y en bloque
+    static void validateBookingWindow(LocalDateTime startTime, LocalDateTime endTime, LocalDateTime now) {
+        if (startTime.isAfter(endTime) || startTime.isEqual(endTime)) {
             throw new InvalidDateTimeRangeException("End time must be after start time.");
         }
-        if (requestLocalStartTime.isBefore(LocalDateTime.now(BUSINESS_ZONE_ID))) {
+        if (startTime.isBefore(now)) {
             throw new InvalidDateTimeRangeException("Booking start time must be in the future.");
         }
 
-
-        LocalTime requestStartTimeHour = requestLocalStartTime.toLocalTime();
-        LocalTime requestEndTimeHour = requestLocalEndTime.toLocalTime();
+        LocalTime startTimeHour = startTime.toLocalTime();
+        LocalTime endTimeHour = endTime.toLocalTime();
 
         // Si la reserva es para el mismo día
-        if (requestLocalStartTime.toLocalDate().equals(requestLocalEndTime.toLocalDate())) {
-            if (requestStartTimeHour.isBefore(EARLIEST_BOOKING_TIME) || requestEndTimeHour.isAfter(LATEST_BOOKING_END_TIME)) {
+        if (startTime.toLocalDate().equals(endTime.toLocalDate())) {
+            if (startTimeHour.isBefore(EARLIEST_BOOKING_TIME) || endTimeHour.isAfter(LATEST_BOOKING_END_TIME)) {
                 throw new InvalidDateTimeRangeException(
                         String.format("Las reservas deben de estar entre %s y %s del mismo día en el horario disponible.", EARLIEST_BOOKING_TIME, LATEST_BOOKING_END_TIME)
                 );
             }
         } else { // Reserva cruza la medianoche
-            if (requestStartTimeHour.isBefore(EARLIEST_BOOKING_TIME)) {
+            if (startTimeHour.isBefore(EARLIEST_BOOKING_TIME)) {
                 throw new InvalidDateTimeRangeException(
                         String.format("El tiempo de la reserva no puede ser antes de %s en el primer día.", EARLIEST_BOOKING_TIME)
                 );
             }
 
-            if (requestEndTimeHour.isAfter(LATEST_BOOKING_END_TIME) && !requestEndTimeHour.equals(LocalTime.MIDNIGHT) ) {
+            if (endTimeHour.isAfter(LATEST_BOOKING_END_TIME) && !endTimeHour.equals(LocalTime.MIDNIGHT) ) {
                 throw new InvalidDateTimeRangeException(
                         String.format("El final de la reserva no puede ser después de %s en el ultimo día.", LATEST_BOOKING_END_TIME)
                 );
             }
         }
+    }
 
-        List<Booking> overlappingBookings = bookingRepository.findOverlappingBookings(
-                room.getId(),
-                requestLocalStartTime,
-                requestLocalEndTime
-        );
+    @Override
+    @Transactional
+    public BookingResponseDTO createBooking(BookingRequestDTO bookingRequestDTO, UserPrincipal principal) {
+        return bookingMetrics.countRejections(() -> createSingleBooking(bookingRequestDTO, principal));
+    }
+
+    // Cada fase se mide por separado para ver en qué se va la latencia de una reserva
+    private BookingResponseDTO createSingleBooking(BookingRequestDTO bookingRequestDTO, UserPrincipal principal) {
+        long phaseStart = System.nanoTime();
+        User user = userRepository.getReferenceById(principal.getId());
+        phaseStart = bookingMetrics.record(BookingMetrics.Phase.USER_LOOKUP, phaseStart);
+
+        Room room = roomRepository.findById(bookingRequestDTO.getRoomId())
+                .orElseThrow(() -> new ResourceNotFoundException("Room", "id", bookingRequestDTO.getRoomId()));
+        phaseStart = bookingMetrics.record(BookingMetrics.Phase.ROOM_LOOKUP, phaseStart);
 
-        if (!overlappingBookings.isEmpty()) {
-            throw new BookingConflictException("La sala ya ha sido reservada para la hora seleccionada, por favor elija otro horario.");
+        LocalDateTime requestLocalStartTime = LocalDateTime.ofInstant(bookingRequestDTO.getStartTime(), BUSINESS_ZONE_ID);
+        LocalDateTime requestLocalEndTime = LocalDateTime.ofInstant(bookingRequestDTO.getEndTime(), BUSINESS_ZONE_ID);
+
+        validateBookingWindow(requestLocalStartTime, requestLocalEndTime, LocalDateTime.now(BUSINESS_ZONE_ID));
+        phaseStart = bookingMetrics.record(BookingMetrics.Phase.VALIDATION, phaseStart);
+
+        // Las solicitudes para la misma sala esperan su turno hasta que termine esta transacción
+        roomAdmission.admit(room.getId());
+        phaseStart = bookingMetrics.record(BookingMetrics.Phase.ADMISSION, phaseStart);
+
+        // Se consulta el índice en memoria en lugar de ir a la base de datos
+        if (bookingIntervalIndex.overlaps(room.getId(), requestLocalStartTime, requestLocalEndTime)) {
+            throw new BookingConflictException(BOOKING_CONFLICT_MESSAGE);
         }
+        phaseStart = bookingMetrics.record(BookingMetrics.Phase.OVERLAP_CHECK, phaseStart);
 
         Booking booking = new Booking();
         booking.setUser(user);
         booking.setRoom(room);
         booking.setStartTime(requestLocalStartTime);
         booking.setEndTime(requestLocalEndTime);
+        booking.setTotalCostCents(pricingEngine.priceCents(room, requestLocalStartTime, requestLocalEndTime));
+
+        // La restricción de exclusión en bookings cubre las reservas creadas por otras instancias
+        Booking savedBooking;
+        try {
+            savedBooking = bookingRepository.saveAndFlush(booking);
+        } catch (DataIntegrityViolationException ex) {
+            if (isBookingOverlap(ex)) {
+                throw new BookingConflictException(BOOKING_CONFLICT_MESSAGE);
+            }
+            throw ex;
+        }
+        bookingMetrics.record(BookingMetrics.Phase.INSERT, phaseStart);
+        bookingIntervalIndex.addAfterCommit(toSlot(savedBooking));
+        readYourWrites.recordWriteAfterCommit(principal.getId());
+        return convertToResponseDTO(savedBooking, principal.getUsername());
+    }
 
-        Booking savedBooking = bookingRepository.save(booking);
-        return convertToResponseDTO(savedBooking);
+    @Override
+    @Transactional
+    public List<BookingResponseDTO> createBookings(List<BookingRequestDTO> bookingRequestDTOs, UserPrincipal principal) {
+        List<BookingSlotDTO> requestedSlots = new ArrayList<>(bookingRequestDTOs.size());
+        for (BookingRequestDTO bookingRequestDTO : bookingRequestDTOs) {
+            requestedSlots.add(new BookingSlotDTO(
+                    0,
+                    bookingRequestDTO.getRoomId(),
+                    LocalDateTime.ofInstant(bookingRequestDTO.getStartTime(), BUSINESS_ZONE_ID),
+                    LocalDateTime.ofInstant(bookingRequestDTO.getEndTime(), BUSINESS_ZONE_ID)
+            ));
+        }
+        return bookingMetrics.countRejections(() -> createBookingsInBatch(requestedSlots, principal));
     }
 
     @Override
-    @Transactional(readOnly = true)
-    @Cacheable(value = "booking", key = "#bookingId")
+    @Transactional
+    public List<BookingResponseDTO> createRecurringBooking(RecurringBookingRequestDTO recurringBookingRequestDTO, UserPrincipal principal) {
+        // Se repite la hora local del negocio, así un cambio de horario no desplaza las reservas
+        LocalDateTime firstStartTime = LocalDateTime.ofInstant(recurringBookingRequestDTO.getStartTime(), BUSINESS_ZONE_ID);
+        LocalDateTime firstEndTime = LocalDateTime.ofInstant(recurringBookingRequestDTO.getEndTime(), BUSINESS_ZONE_ID);
+
+        List<BookingSlotDTO> requestedSlots = new ArrayList<>(recurringBookingRequestDTO.getOccurrences());
+        for (int i = 0; i < recurringBookingRequestDTO.getOccurrences(); i++) {
+            long offsetDays = (long) i * recurringBookingRequestDTO.getIntervalDays();
+            requestedSlots.add(new BookingSlotDTO(
+                    0,
+                    recurringBookingRequestDTO.getRoomId(),
+                    firstStartTime.plusDays(offsetDays),
+                    firstEndTime.plusDays(offsetDays)
+            ));
+        }
+        return bookingMetrics.countRejections(() -> createBookingsInBatch(requestedSlots, principal));
+    }
 
+    // Sin transacción ni contexto de persistencia: solo las reglas de horario y la tabla de precios en memoria
+    @Override
+    public List<BookingQuoteDTO> quoteBookings(List<BookingRequestDTO> bookingRequestDTOs) {
+        LocalDateTime now = LocalDateTime.now(BUSINESS_ZONE_ID);
+        List<BookingQuoteDTO> quotes = new ArrayList<>(bookingRequestDTOs.size());
+        for (int i = 0; i < bookingRequestDTOs.size(); i++) {
+            BookingRequestDTO request = bookingRequestDTOs.get(i);
+            PricingEngine.RoomRates rates = pricingEngine.rates(request.getRoomId());
+            if (rates == null) {
+                throw new ResourceNotFoundException("Room", "id", request.getRoomId());
+            }
+            LocalDateTime startTime = LocalDateTime.ofInstant(request.getStartTime(), BUSINESS_ZONE_ID);
+            LocalDateTime endTime = LocalDateTime.ofInstant(request.getEndTime(), BUSINESS_ZONE_ID);
+            try {
+                validateBookingWindow(startTime, endTime, now);
+            } catch (InvalidDateTimeRangeException ex) {
+                throw new InvalidDateTimeRangeException(String.format("Reserva %d: %s", i + 1, ex.getMessage()));
+            }
+            quotes.add(new BookingQuoteDTO(request.getRoomId(), request.getStartTime(), request.getEndTime(),
+                    CentsConverter.toAmount(pricingEngine.priceCents(rates, startTime, endTime))));
+        }
+        return quotes;
+    }
+
+    // Valida todas las reservas, busca conflictos con una sola consulta y las inserta en lotes JDBC
+    private List<BookingResponseDTO> createBookingsInBatch(List<BookingSlotDTO> requestedSlots, UserPrincipal principal) {
+        User user = userRepository.getReferenceById(principal.getId());
+
+        LocalDateTime now = LocalDateTime.now(BUSINESS_ZONE_ID);
+        for (int i = 0; i < requestedSlots.size(); i++) {
+            BookingSlotDTO slot = requestedSlots.get(i);
+            try {
+                validateBookingWindow(slot.getStartTime(), slot.getEndTime(), now);
+            } catch (InvalidDateTimeRangeException ex) {
+                throw new InvalidDateTimeRangeException(String.format("Reserva %d: %s", i + 1, ex.getMessage()));
+            }
+        }
+
+        List<BookingSlotDTO> sortedSlots = new ArrayList<>(requestedSlots);
+        sortedSlots.sort(Comparator.comparingInt(BookingSlotDTO::getRoomId).thenComparing(BookingSlotDTO::getStartTime));
+        for (int i = 1; i < sortedSlots.size(); i++) {
+            BookingSlotDTO previous = sortedSlots.get(i - 1);
+            BookingSlotDTO current = sortedSlots.get(i);
+            if (previous.getRoomId() == current.getRoomId() && previous.getEndTime().isAfter(current.getStartTime())) {
+                throw new BookingConflictException("Las reservas solicitadas se solapan entre sí.");
+            }
+        }
+
+        Set<Integer> roomIds = sortedSlots.stream().map(BookingSlotDTO::getRoomId).collect(Collectors.toSet());
+        Map<Integer, Room> rooms = roomRepository.findAllById(roomIds).stream()
+                .collect(Collectors.toMap(Room::getId, Function.identity()));
+        for (Integer roomId : roomIds) {
+            if (!rooms.containsKey(roomId)) {
+                throw new ResourceNotFoundException("Room", "id", roomId);
+            }
+        }
+
+        roomAdmission.admit(roomIds);
+
+        LocalDateTime rangeStart = sortedSlots.stream().map(BookingSlotDTO::getStartTime).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime rangeEnd = sortedSlots.stream().map(BookingSlotDTO::getEndTime).max(Comparator.naturalOrder()).orElseThrow();
+        Map<Integer, TreeMap<LocalDateTime, BookingSlotDTO>> existingByRoom = bookingRepository
+                .findSlotsInRooms(roomIds, rangeStart, rangeEnd).stream()
+                .collect(Collectors.groupingBy(BookingSlotDTO::getRoomId,
+                        Collectors.toMap(BookingSlotDTO::getStartTime, Function.identity(), (a, b) -> a, TreeMap::new)));
+        for (BookingSlotDTO slot : sortedSlots) {
+            TreeMap<LocalDateTime, BookingSlotDTO> existing = existingByRoom.get(slot.getRoomId());
+            if (existing == null) {
+                continue;
+            }
+            Map.Entry<LocalDateTime, BookingSlotDTO> previous = existing.lowerEntry(slot.getEndTime());
+            if (previous != null && previous.getValue().getEndTime().isAfter(slot.getStartTime())) {
+                throw new BookingConflictException(String.format(
+                        "La sala %d ya está reservada el %s, por favor elija otro horario.", slot.getRoomId(), slot.getStartTime()));
+            }
+        }
+
+        List<Booking> bookings = new ArrayList<>(requestedSlots.size());
+        for (BookingSlotDTO slot : requestedSlots) {
+            Booking booking = new Booking();
+            booking.setUser(user);
+            booking.setRoom(rooms.get(slot.getRoomId()));
+            booking.setStartTime(slot.getStartTime());
+            booking.setEndTime(slot.getEndTime());
+            booking.setTotalCostCents(pricingEngine.priceCents(booking.getRoom(), slot.getStartTime(), slot.getEndTime()));
+            bookings.add(booking);
+        }
+
+        List<Booking> savedBookings;
+        try {
+            savedBookings = bookingRepository.saveAllAndFlush(bookings);
+        } catch (DataIntegrityViolationException ex) {
+            if (isBookingOverlap(ex)) {
+                throw new BookingConflictException(BOOKING_CONFLICT_MESSAGE);
+            }
+            throw ex;
+        }
+
+        List<BookingResponseDTO> responses = new ArrayList<>(savedBookings.size());
+        for (Booking savedBooking : savedBookings) {
+            bookingIntervalIndex.addAfterCommit(toSlot(savedBooking));
+            responses.add(convertToResponseDTO(savedBooking, principal.getUsername()));
+        }
+        readYourWrites.recordWriteAfterCommit(principal.getId());
+        return responses;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(value = "booking", key = "#bookingId", unless = "#result == null")
     public Optional<BookingResponseDTO> getBookingById(int bookingId) {
-        return bookingRepository.findById(bookingId).map(this::convertToResponseDTO);
+        // Llena la caché compartida: desde la réplica podría volver a guardar una reserva ya cancelada
+        return PrimaryReads.call(() -> bookingRepository.findResponseById(bookingId));
     }
 
     @Override
@@ -143,52 +368,153 @@ public class BookingServiceImpl implements BookingService {
         if (!userRepository.existsById(userId)) {
             throw new ResourceNotFoundException("User", "id", userId);
         }
-        return bookingRepository.findByUserId(userId)
-                .stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+        return bookingRepository.findResponsesByUserId(userId);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<BookingResponseDTO> getMyBookings(String authenticatedUsername, Pageable pageable) {
-        User user = userRepository.findByUsername(authenticatedUsername)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "username", authenticatedUsername));
-        return bookingRepository.findByUserIdAndStartTimeAfterOrderByStartTimeAsc(user.getId(), LocalDateTime.now(BUSINESS_ZONE_ID).minusDays(1))
-                .stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+    public CursorPageDTO<BookingResponseDTO> getMyBookings(UserPrincipal principal, String cursor, int size) {
+        LocalDateTime after = LocalDateTime.now(BUSINESS_ZONE_ID).minusDays(1);
+        PageRequest limit = pageLimit(size);
+        List<BookingResponseDTO> bookings;
+        if (cursor == null) {
+            bookings = bookingRepository.findUpcomingByUserId(principal.getId(), after, limit);
+        } else {
+            BookingCursor position = BookingCursor.decode(cursor);
+            bookings = bookingRepository.findUpcomingByUserIdAfterCursor(
+                    principal.getId(), after, position.getStartTime(), position.getId(), limit);
+        }
+        return toCursorPage(bookings, limit.getPageSize() - 1);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Page<BookingResponseDTO> getAllBookings(Pageable pageable) {
-        Page<Booking> bookingPage = bookingRepository.findAll(pageable);
-        List<BookingResponseDTO> bookingResponseDTOs = bookingPage.getContent().stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
-        return new PageImpl<>(bookingResponseDTOs, pageable, bookingPage.getTotalElements());
+    public CursorPageDTO<BookingResponseDTO> getAllBookings(String cursor, int size) {
+        PageRequest limit = pageLimit(size);
+        List<BookingResponseDTO> bookings;
+        if (cursor == null) {
+            bookings = bookingRepository.findAllOrderedByStartTime(limit);
+        } else {
+            BookingCursor position = BookingCursor.decode(cursor);
+            bookings = bookingRepository.findAllOrderedByStartTimeAfterCursor(position.getStartTime(), position.getId(), limit);
+        }
+        return toCursorPage(bookings, limit.getPageSize() - 1);
+    }
+
+    // Se pide una fila de más para saber si hay página siguiente sin hacer un COUNT
+    private static PageRequest pageLimit(int size) {
+        return PageRequest.of(0, Math.min(Math.max(size, 1), MAX_PAGE_SIZE) + 1);
+    }
+
+    private static CursorPageDTO<BookingResponseDTO> toCursorPage(List<BookingResponseDTO> bookings, int size) {
+        boolean hasNext = bookings.size() > size;
+        List<BookingResponseDTO> content = hasNext ? new ArrayList<>(bookings.subList(0, size)) : bookings;
+        String nextCursor = null;
+        if (hasNext) {
+            BookingResponseDTO last = content.get(content.size() - 1);
+            nextCursor = new BookingCursor(last.getStartTime(), last.getId()).encode();
+        }
+        return new CursorPageDTO<>(content, nextCursor, hasNext);
     }
 
     @Override
     @Transactional
-    public boolean cancelBooking(int bookingId, String authenticatedUsername) {
+    @CacheEvict(value = "booking", key = "#bookingId")
+    public boolean cancelBooking(int bookingId, UserPrincipal principal) {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new ResourceNotFoundException("Booking", "id", bookingId));
 
-        User requester = userRepository.findByUsername(authenticatedUsername)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "username", authenticatedUsername));
-
+        // El id del usuario de la reserva se lee del proxy sin cargarlo
         int bookingUserId = booking.getUser().getId();
-        int requesterId = requester.getId();
+        int requesterId = principal.getId();
 
 
-        if (bookingUserId != requesterId  && !requester.isAdmin()) {
+        if (bookingUserId != requesterId  && !principal.isAdmin()) {
             throw new AccessDeniedException("You are not authorized to cancel this booking.");
         }
 
 
         bookingRepository.delete(booking);
+        bookingIntervalIndex.removeAfterCommit(toSlot(booking));
+        // Quien cancela, sea el dueño o un administrador, ve la reserva ya cancelada en su siguiente lectura
+        readYourWrites.recordWriteAfterCommit(requesterId);
         return true;
     }
+
+    @Override
+    public List<AvailabilitySlotDTO> getRoomAvailability(int roomId, Instant from, Instant to) {
+        if (!from.isBefore(to)) {
+            throw new InvalidDateTimeRangeException("'from' must be before 'to'.");
+        }
+        if (Duration.between(from, to).compareTo(MAX_AVAILABILITY_RANGE) > 0) {
+            throw new InvalidDateTimeRangeException(
+                    String.format("El rango de disponibilidad no puede superar %d días.", MAX_AVAILABILITY_RANGE.toDays())
+            );
+        }
+        if (!roomRepository.existsById(roomId)) {
+            throw new ResourceNotFoundException("Room", "id", roomId);
+        }
+
+        // No tiene sentido ofrecer horarios que ya pasaron
+        LocalDateTime localFrom = LocalDateTime.ofInstant(from, BUSINESS_ZONE_ID);
+        LocalDateTime now = LocalDateTime.now(BUSINESS_ZONE_ID);
+        if (localFrom.isBefore(now)) {
+            localFrom = now;
+        }
+        LocalDateTime localTo = LocalDateTime.ofInstant(to, BUSINESS_ZONE_ID);
+        if (!localFrom.isBefore(localTo)) {
+            return new ArrayList<>();
+        }
+
+        List<BookingSlotDTO> bookings = bookingIntervalIndex.findOverlapping(roomId, localFrom, localTo);
+        return computeFreeSlots(bookings, localFrom, localTo);
+    }
+
+    // Recorre una sola vez las reservas (ordenadas por inicio) y devuelve los huecos libres dentro del horario de cada día
+    static List<AvailabilitySlotDTO> computeFreeSlots(List<BookingSlotDTO> bookings, LocalDateTime from, LocalDateTime to) {
+        List<AvailabilitySlotDTO> freeSlots = new ArrayList<>();
+        int next = 0;
+        for (LocalDate day = from.toLocalDate(); !day.isAfter(to.toLocalDate()); day = day.plusDays(1)) {
+            LocalDateTime cursor = max(day.atTime(EARLIEST_BOOKING_TIME), from);
+            LocalDateTime close = min(day.atTime(LATEST_BOOKING_END_TIME), to);
+            if (!cursor.isBefore(close)) {
+                continue;
+            }
+
+            while (next < bookings.size() && !bookings.get(next).getEndTime().isAfter(cursor)) {
+                next++;
+            }
+            for (int i = next; i < bookings.size() && cursor.isBefore(close); i++) {
+                BookingSlotDTO booking = bookings.get(i);
+                if (!booking.getStartTime().isBefore(close)) {
+                    break;
+                }
+                if (booking.getStartTime().isAfter(cursor)) {
+                    freeSlots.add(toAvailabilitySlot(cursor, booking.getStartTime()));
+                }
+                if (booking.getEndTime().isAfter(cursor)) {
+                    cursor = booking.getEndTime();
+                }
+            }
+            if (cursor.isBefore(close)) {
+                freeSlots.add(toAvailabilitySlot(cursor, close));
+            }
+        }
+        return freeSlots;
+    }
+
+    private static AvailabilitySlotDTO toAvailabilitySlot(LocalDateTime start, LocalDateTime end) {
+        return new AvailabilitySlotDTO(
+                start.atZone(BUSINESS_ZONE_ID).toInstant(),
+                end.atZone(BUSINESS_ZONE_ID).toInstant()
+        );
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
 }
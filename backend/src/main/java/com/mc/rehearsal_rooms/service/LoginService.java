@@ -0,0 +1,10 @@
+package com.mc.rehearsal_rooms.service;
+
+import com.mc.rehearsal_rooms.dto.JwtAuthenticationResponseDTO;
+import com.mc.rehearsal_rooms.dto.LoginRequestDTO;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface LoginService {
+    CompletableFuture<JwtAuthenticationResponseDTO> login(LoginRequestDTO loginRequestDTO);
+}
@@ -0,0 +1,119 @@
+package com.mc.rehearsal_rooms.service;
+
+import com.mc.rehearsal_rooms.dto.JwtAuthenticationResponseDTO;
+import com.mc.rehearsal_rooms.dto.LoginRequestDTO;
+import com.mc.rehearsal_rooms.exception.LoginUnavailableException;
+import com.mc.rehearsal_rooms.security.UserPrincipal;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * El login es la única operación que calcula BCrypt. Se ejecuta en un pool propio y acotado para que
+ * una ráfaga de logins no ocupe todos los núcleos ni los hilos del servidor; cuando la cola se llena
+ * se responde 503 de inmediato en lugar de acumular peticiones.
+ */
+@Service
+public class LoginServiceImpl implements LoginService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginServiceImpl.class);
+
+    private final AuthenticationManager authenticationManager;
+    private final RefreshTokenService refreshTokenService;
+    private final ThreadPoolExecutor loginExecutor;
+    private final Timer successTimer;
+    private final Timer failureTimer;
+    private final Timer rejectedTimer;
+
+    @Autowired
+    public LoginServiceImpl(AuthenticationManager authenticationManager,
+                            RefreshTokenService refreshTokenService,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.auth.login.threads:0}") int threads,
+                            @Value("${app.auth.login.queue-capacity:50}") int queueCapacity) {
+        this.authenticationManager = authenticationManager;
+        this.refreshTokenService = refreshTokenService;
+        this.successTimer = loginTimer("success", meterRegistry);
+        this.failureTimer = loginTimer("failure", meterRegistry);
+        this.rejectedTimer = loginTimer("rejected", meterRegistry);
+
+        // 0 = la mitad de los núcleos, para dejar CPU libre al resto de la API
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.loginExecutor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "login-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(loginExecutor, "login", Tags.empty()).bindTo(meterRegistry);
+        logger.info("Login executor started with {} threads and a queue of {}", poolSize, queueCapacity);
+    }
+
+    @Override
+    public CompletableFuture<JwtAuthenticationResponseDTO> login(LoginRequestDTO loginRequestDTO) {
+        long queuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> authenticate(loginRequestDTO, queuedAt), loginExecutor);
+        } catch (RejectedExecutionException ex) {
+            record(rejectedTimer, queuedAt);
+            throw new LoginUnavailableException("El servicio de inicio de sesión está saturado, por favor intente de nuevo en unos segundos.");
+        }
+    }
+
+    private JwtAuthenticationResponseDTO authenticate(LoginRequestDTO loginRequestDTO, long queuedAt) {
+        try {
+            Authentication authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(
+                            loginRequestDTO.getUsernameOrEmail(),
+                            loginRequestDTO.getPassword()
+                    )
+            );
+            JwtAuthenticationResponseDTO tokens = refreshTokenService.issueTokens((UserPrincipal) authentication.getPrincipal());
+            record(successTimer, queuedAt);
+            return tokens;
+        } catch (AuthenticationException ex) {
+            record(failureTimer, queuedAt);
+            throw ex;
+        }
+    }
+
+    private static void record(Timer timer, long queuedAt) {
+        timer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+    }
+
+    // Latencia total del login (espera en cola + hash) por resultado, con percentiles
+    private static Timer loginTimer(String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder("auth.login")
+                .description("Login latency including time queued for the login executor")
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loginExecutor.shutdown();
+    }
+}
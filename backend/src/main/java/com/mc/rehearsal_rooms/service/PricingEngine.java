@@ -0,0 +1,250 @@
+package com.mc.rehearsal_rooms.service;
+
+import com.mc.rehearsal_rooms.PrimaryReads;
+import com.mc.rehearsal_rooms.model.Room;
+import com.mc.rehearsal_rooms.repository.RoomRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Precio de una reserva en céntimos. Las tarifas de cada sala se compilan una vez en una tabla de
+ * longs (base, punta y fin de semana por hora, y el bloque de cobro), y una reserva se evalúa con
+ * aritmética sobre minutos en hora local, sin crear objetos. La reserva se divide en bloques completos
+ * desde su inicio; cada bloque se cobra con la tarifa vigente al empezar: fin de semana si la sala
+ * la tiene, si no punta dentro de app.pricing.peak-*, y si no la base.
+ * La tabla de todas las salas se carga al arrancar, se actualiza tras cada commit de RoomService y se
+ * recarga periódicamente para recoger las tarifas cambiadas en otras instancias, así los presupuestos
+ * no necesitan base de datos. Al crear una reserva se usa la sala recién cargada, y si sus tarifas
+ * cambiaron la tabla se recompila en ese momento.
+ */
+@Component
+public class PricingEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(PricingEngine.class);
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final long NO_RATE = -1;
+
+    private final RoomRepository roomRepository;
+    private final int peakStartMinute;
+    private final int peakEndMinute;
+
+    // Los cambios sueltos toman el lock de lectura; la recarga el de escritura para no perder cambios
+    private final ReentrantReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    // Se sustituye entera al recargar, así un presupuesto nunca ve la tabla a medio llenar
+    private volatile Map<Integer, RoomRates> ratesByRoom = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PricingEngine(RoomRepository roomRepository,
+                         @Value("${app.pricing.peak-start:18:00}") String peakStart,
+                         @Value("${app.pricing.peak-end:23:00}") String peakEnd) {
+        this.roomRepository = roomRepository;
+        this.peakStartMinute = LocalTime.parse(peakStart).toSecondOfDay() / 60;
+        this.peakEndMinute = LocalTime.parse(peakEnd).toSecondOfDay() / 60;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        rebuildLock.writeLock().lock();
+        try {
+            ratesByRoom = load();
+            logger.info("Pricing table built with {} rooms", ratesByRoom.size());
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recarga las tarifas desde la base de datos para que los presupuestos usen las cambiadas en otras
+     * instancias. Devuelve el número de salas nuevas, eliminadas o con tarifas distintas.
+     */
+    @Scheduled(initialDelayString = "${app.pricing.refresh-interval-ms:60000}",
+            fixedDelayString = "${app.pricing.refresh-interval-ms:60000}")
+    public int refresh() {
+        rebuildLock.writeLock().lock();
+        try {
+            Map<Integer, RoomRates> loaded = load();
+            Map<Integer, RoomRates> current = ratesByRoom;
+            int changed = 0;
+            for (Map.Entry<Integer, RoomRates> entry : loaded.entrySet()) {
+                RoomRates previous = current.get(entry.getKey());
+                if (previous == null || !previous.sameAs(entry.getValue())) {
+                    changed++;
+                }
+            }
+            for (Integer roomId : current.keySet()) {
+                if (!loaded.containsKey(roomId)) {
+                    changed++;
+                }
+            }
+            ratesByRoom = loaded;
+            if (changed > 0) {
+                logger.info("Pricing table reloaded: {} rooms changed outside this instance", changed);
+            }
+            return changed;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    private Map<Integer, RoomRates> load() {
+        Map<Integer, RoomRates> loaded = new ConcurrentHashMap<>();
+        for (Room room : PrimaryReads.call(roomRepository::findAll)) {
+            loaded.put(room.getId(), new RoomRates(room));
+        }
+        return loaded;
+    }
+
+    public void put(Room room) {
+        publish(room.getId(), new RoomRates(room));
+    }
+
+    public void remove(int roomId) {
+        rebuildLock.readLock().lock();
+        try {
+            ratesByRoom.remove(roomId);
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    // Se compila ya (la entidad puede cambiar después) y se publica solo si la transacción confirma
+    public void putAfterCommit(Room room) {
+        RoomRates rates = new RoomRates(room);
+        int roomId = room.getId();
+        runAfterCommit(() -> publish(roomId, rates));
+    }
+
+    private void publish(int roomId, RoomRates rates) {
+        rebuildLock.readLock().lock();
+        try {
+            ratesByRoom.put(roomId, rates);
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    public void removeAfterCommit(int roomId) {
+        runAfterCommit(() -> remove(roomId));
+    }
+
+    public long priceCents(Room room, LocalDateTime startTime, LocalDateTime endTime) {
+        return priceCents(rates(room), startTime, endTime);
+    }
+
+    // La tabla compilada se reutiliza mientras las tarifas de la sala no cambien
+    RoomRates rates(Room room) {
+        RoomRates rates = ratesByRoom.get(room.getId());
+        if (rates == null || !rates.matches(room)) {
+            rates = new RoomRates(room);
+            publish(room.getId(), rates);
+        }
+        return rates;
+    }
+
+    // Null si la sala no existe
+    RoomRates rates(int roomId) {
+        return ratesByRoom.get(roomId);
+    }
+
+    long priceCents(RoomRates rates, LocalDateTime startTime, LocalDateTime endTime) {
+        long startSecond = startTime.toEpochSecond(ZoneOffset.UTC);
+        long minutes = (endTime.toEpochSecond(ZoneOffset.UTC) - startSecond) / 60;
+        if (minutes <= 0) {
+            return 0;
+        }
+        int block = rates.blockMinutes;
+        long blocks = (minutes + block - 1) / block;
+        long startMinute = Math.floorDiv(startSecond, 60);
+
+        // Se acumula en céntimos x minuto y se divide una sola vez, redondeando al céntimo
+        long centMinutes = 0;
+        for (long i = 0; i < blocks; i++) {
+            centMinutes += rateAt(rates, startMinute + i * block) * block;
+        }
+        return (centMinutes + 30) / 60;
+    }
+
+    private long rateAt(RoomRates rates, long epochMinute) {
+        // 1970-01-01 fue jueves: con lunes = 0, sábado = 5 y domingo = 6
+        int dayOfWeek = (int) Math.floorMod(Math.floorDiv(epochMinute, MINUTES_PER_DAY) + 3, 7);
+        if (dayOfWeek >= 5 && rates.weekendCents != NO_RATE) {
+            return rates.weekendCents;
+        }
+        if (rates.peakCents != NO_RATE && isPeak((int) Math.floorMod(epochMinute, MINUTES_PER_DAY))) {
+            return rates.peakCents;
+        }
+        return rates.baseCents;
+    }
+
+    private boolean isPeak(int minuteOfDay) {
+        if (peakStartMinute <= peakEndMinute) {
+            return minuteOfDay >= peakStartMinute && minuteOfDay < peakEndMinute;
+        }
+        return minuteOfDay >= peakStartMinute || minuteOfDay < peakEndMinute; // Horario punta que cruza la medianoche
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    static final class RoomRates {
+        private final long baseCents;
+        private final long peakCents;
+        private final long weekendCents;
+        private final int blockMinutes;
+
+        RoomRates(Room room) {
+            this.baseCents = room.getPricePerHourCents();
+            this.peakCents = optionalRate(room.getPeakPricePerHourCents());
+            this.weekendCents = optionalRate(room.getWeekendPricePerHourCents());
+            this.blockMinutes = blockMinutes(room);
+        }
+
+        boolean sameAs(RoomRates other) {
+            return baseCents == other.baseCents
+                    && peakCents == other.peakCents
+                    && weekendCents == other.weekendCents
+                    && blockMinutes == other.blockMinutes;
+        }
+
+        boolean matches(Room room) {
+            return baseCents == room.getPricePerHourCents()
+                    && peakCents == optionalRate(room.getPeakPricePerHourCents())
+                    && weekendCents == optionalRate(room.getWeekendPricePerHourCents())
+                    && blockMinutes == blockMinutes(room);
+        }
+
+        private static long optionalRate(Long cents) {
+            return cents != null ? cents : NO_RATE;
+        }
+
+        private static int blockMinutes(Room room) {
+            return room.getMinimumBlockMinutes() > 0 ? room.getMinimumBlockMinutes() : 60;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.mc.rehearsal_rooms.service;
+
+import com.mc.rehearsal_rooms.dto.JwtAuthenticationResponseDTO;
+import com.mc.rehearsal_rooms.security.UserPrincipal;
+
+public interface RefreshTokenService {
+    JwtAuthenticationResponseDTO issueTokens(UserPrincipal principal); // Tras un login: access token + refresh token de una familia nueva
+    JwtAuthenticationResponseDTO refresh(String refreshToken);
+    void revoke(String refreshToken, int userId); // Revoca toda la familia del token si pertenece a userId
+}
@@ -0,0 +1,136 @@
+package com.mc.rehearsal_rooms.service;
+
+import com.mc.rehearsal_rooms.dto.JwtAuthenticationResponseDTO;
+import com.mc.rehearsal_rooms.exception.InvalidRefreshTokenException;
+import com.mc.rehearsal_rooms.model.RefreshToken;
+import com.mc.rehearsal_rooms.repository.RefreshTokenRepository;
+import com.mc.rehearsal_rooms.repository.UserRepository;
+import com.mc.rehearsal_rooms.security.JwtTokenProvider;
+import com.mc.rehearsal_rooms.security.UserPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Refresh tokens opacos y rotativos. Renovar la sesión es una búsqueda por hash indexado en lugar de
+ * un BCrypt completo. Cada uso entrega un token nuevo de la misma familia y marca el anterior como
+ * usado; si un token usado vuelve a presentarse (robo o repetición), se revoca la familia entera.
+ */
+@Service
+public class RefreshTokenServiceImpl implements RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenServiceImpl.class);
+
+    private static final int TOKEN_BYTES = 32;
+    private static final String INVALID_TOKEN_MESSAGE = "La sesión expiró, por favor inicie sesión de nuevo.";
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final JwtTokenProvider tokenProvider;
+    private final long refreshExpirationMs;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Autowired
+    public RefreshTokenServiceImpl(RefreshTokenRepository refreshTokenRepository,
+                                   UserRepository userRepository,
+                                   JwtTokenProvider tokenProvider,
+                                   @Value("${app.jwt.refresh-expiration-ms:1209600000}") long refreshExpirationMs) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.tokenProvider = tokenProvider;
+        this.refreshExpirationMs = refreshExpirationMs;
+    }
+
+    @Override
+    @Transactional
+    public JwtAuthenticationResponseDTO issueTokens(UserPrincipal principal) {
+        return issueTokens(principal, UUID.randomUUID());
+    }
+
+    // La revocación de la familia debe persistir aunque la petición termine en 401
+    @Override
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public JwtAuthenticationResponseDTO refresh(String refreshToken) {
+        RefreshToken stored = refreshTokenRepository.findByTokenHashWithUser(hash(refreshToken))
+                .orElseThrow(() -> new InvalidRefreshTokenException(INVALID_TOKEN_MESSAGE));
+
+        if (!stored.isRevoked() && stored.getExpiresAt().isBefore(Instant.now())) {
+            throw new InvalidRefreshTokenException(INVALID_TOKEN_MESSAGE);
+        }
+        if (stored.isRevoked() || refreshTokenRepository.markUsed(stored.getId()) == 0) {
+            int revoked = refreshTokenRepository.revokeFamily(stored.getFamilyId());
+            logger.warn("Refresh token reuse detected for user {}; revoked {} tokens of family {}",
+                    stored.getUser().getId(), revoked, stored.getFamilyId());
+            throw new InvalidRefreshTokenException(INVALID_TOKEN_MESSAGE);
+        }
+
+        // Los roles se leen de la base de datos en cada renovación, así un cambio de rol se aplica en el siguiente refresh
+        UserPrincipal principal = UserPrincipal.create(stored.getUser());
+        return issueTokens(principal, stored.getFamilyId());
+    }
+
+    @Override
+    @Transactional
+    public void revoke(String refreshToken, int userId) {
+        RefreshToken stored = refreshTokenRepository.findByTokenHashWithUser(hash(refreshToken)).orElse(null);
+        if (stored == null) {
+            return;
+        }
+        // Con el refresh token de otro usuario se podría cerrar su sesión
+        if (stored.getUser().getId() != userId) {
+            logger.warn("User {} tried to revoke a refresh token of user {}", userId, stored.getUser().getId());
+            throw new AccessDeniedException("You are not authorized to revoke this session.");
+        }
+        refreshTokenRepository.revokeFamily(stored.getFamilyId());
+    }
+
+    // Los tokens usados se conservan hasta su expiración para poder detectar reutilizaciones
+    @Scheduled(initialDelayString = "${app.jwt.refresh-purge-interval-ms:3600000}",
+            fixedDelayString = "${app.jwt.refresh-purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(Instant.now());
+        if (deleted > 0) {
+            logger.info("Purged {} expired refresh tokens", deleted);
+        }
+    }
+
+    private JwtAuthenticationResponseDTO issueTokens(UserPrincipal principal, UUID familyId) {
+        byte[] randomBytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(randomBytes);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(randomBytes);
+
+        RefreshToken stored = new RefreshToken();
+        stored.setTokenHash(hash(refreshToken));
+        stored.setUser(userRepository.getReferenceById(principal.getId()));
+        stored.setFamilyId(familyId);
+        stored.setExpiresAt(Instant.now().plusMillis(refreshExpirationMs));
+        refreshTokenRepository.save(stored);
+
+        String accessToken = tokenProvider.generateTokenFromUsername(principal.getUsername(), principal.getId(), principal.getRoles());
+        return new JwtAuthenticationResponseDTO(accessToken, refreshToken, tokenProvider.getExpirationMs() / 1000);
+    }
+
+    private static String hash(String refreshToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(refreshToken.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.mc.rehearsal_rooms.service;
+
+import com.mc.rehearsal_rooms.exception.RoomBusyException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Turno por sala dentro de la JVM: las solicitudes para la misma sala se atienden de una en una
+ * hasta que su transacción termina, y las de salas distintas no se bloquean entre sí (salvo que
+ * compartan franja). Es solo una optimización; la restricción de exclusión en bookings es la que
+ * garantiza que no haya solapamientos entre instancias.
+ */
+@Component
+public class RoomAdmission {
+
+    private final ReentrantLock[] stripes;
+    private final long timeoutMs;
+
+    @Autowired
+    public RoomAdmission(@Value("${app.booking.admission.stripes:64}") int stripes,
+                         @Value("${app.booking.admission.timeout-ms:2000}") long timeoutMs) {
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.timeoutMs = timeoutMs;
+    }
+
+    public void admit(int roomId) {
+        admit(List.of(roomId));
+    }
+
+    // Las franjas se toman siempre en orden ascendente para que dos solicitudes con varias salas no se bloqueen mutuamente
+    public void admit(Collection<Integer> roomIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Room admission requires an active transaction");
+        }
+        int[] stripeIndexes = roomIds.stream()
+                .mapToInt(roomId -> Math.floorMod(roomId, stripes.length))
+                .distinct()
+                .sorted()
+                .toArray();
+
+        List<ReentrantLock> acquired = new ArrayList<>(stripeIndexes.length);
+        try {
+            for (int stripeIndex : stripeIndexes) {
+                ReentrantLock lock = stripes[stripeIndex];
+                if (!lock.tryLock(timeoutMs, TimeUnit.MILLISECONDS)) {
+                    throw new RoomBusyException("La sala está recibiendo demasiadas solicitudes, por favor intente de nuevo.");
+                }
+                acquired.add(lock);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            acquired.forEach(ReentrantLock::unlock);
+            throw new RoomBusyException("La solicitud fue interrumpida, por favor intente de nuevo.");
+        } catch (RuntimeException ex) {
+            acquired.forEach(ReentrantLock::unlock);
+            throw ex;
+        }
+
+        // Se libera después del commit, cuando el índice en memoria ya refleja la nueva reserva
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                acquired.forEach(ReentrantLock::unlock);
+            }
+        });
+    }
+}
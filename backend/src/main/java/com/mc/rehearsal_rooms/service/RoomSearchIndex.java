@@ -0,0 +1,216 @@
+package com.mc.rehearsal_rooms.service;
+
+import com.mc.rehearsal_rooms.PrimaryReads;
+import com.mc.rehearsal_rooms.dto.RoomResponseDTO;
+import com.mc.rehearsal_rooms.model.Room;
+import com.mc.rehearsal_rooms.repository.RoomRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Catálogo de salas en memoria para la búsqueda entre salas. Cada elemento de equipo distinto
+ * recibe un bit, y cada sala guarda su equipo como máscara de bits, así que filtrar por equipo es
+ * un AND por palabra. La disponibilidad se resuelve con los mapas de ocupación de BookingIntervalIndex.
+ * Los cambios de esta instancia se aplican tras cada commit de RoomService; los de otras instancias
+ * llegan con la recarga periódica desde la base de datos.
+ */
+@Component
+public class RoomSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomSearchIndex.class);
+
+    private final RoomRepository roomRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+
+    private final Map<String, Integer> equipmentBits = new ConcurrentHashMap<>();
+    private final AtomicInteger nextEquipmentBit = new AtomicInteger();
+
+    // Las altas/bajas toman el lock de lectura; la recarga el de escritura para no perder cambios
+    private final ReentrantReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    // Se sustituye entero al recargar, así una búsqueda nunca ve el índice a medio llenar
+    private volatile Map<Integer, IndexedRoom> rooms = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RoomSearchIndex(RoomRepository roomRepository, BookingIntervalIndex bookingIntervalIndex) {
+        this.roomRepository = roomRepository;
+        this.bookingIntervalIndex = bookingIntervalIndex;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        rebuildLock.writeLock().lock();
+        try {
+            rooms = load();
+            logger.info("Room search index built with {} rooms and {} equipment items", rooms.size(), equipmentBits.size());
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recarga las salas desde la base de datos para recoger los cambios hechos por otras instancias.
+     * Devuelve false si el índice no coincidía con la tabla.
+     */
+    @Scheduled(initialDelayString = "${app.room-search.resync-interval-ms:60000}",
+            fixedDelayString = "${app.room-search.resync-interval-ms:60000}")
+    public boolean resync() {
+        rebuildLock.writeLock().lock();
+        try {
+            Map<Integer, IndexedRoom> loaded = load();
+            boolean inSync = sameRooms(rooms, loaded);
+            rooms = loaded;
+            if (!inSync) {
+                logger.info("Room search index reloaded with {} rooms after changes from another instance", loaded.size());
+            }
+            return inSync;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    private Map<Integer, IndexedRoom> load() {
+        Map<Integer, IndexedRoom> loaded = new ConcurrentHashMap<>();
+        for (Room room : PrimaryReads.call(roomRepository::findAllWithEquipment)) {
+            RoomResponseDTO dto = RoomServiceImpl.convertToResponseDTO(room);
+            loaded.put(dto.getId(), index(dto));
+        }
+        return loaded;
+    }
+
+    private static boolean sameRooms(Map<Integer, IndexedRoom> current, Map<Integer, IndexedRoom> loaded) {
+        Map<Integer, RoomResponseDTO> currentDtos = new HashMap<>();
+        current.forEach((id, room) -> currentDtos.put(id, room.dto));
+        Map<Integer, RoomResponseDTO> loadedDtos = new HashMap<>();
+        loaded.forEach((id, room) -> loadedDtos.put(id, room.dto));
+        return currentDtos.equals(loadedDtos);
+    }
+
+    public void put(RoomResponseDTO room) {
+        rebuildLock.readLock().lock();
+        try {
+            rooms.put(room.getId(), index(room));
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    private IndexedRoom index(RoomResponseDTO room) {
+        long[] mask = new long[0];
+        for (String item : room.getEquipment()) {
+            int bit = equipmentBits.computeIfAbsent(normalize(item), key -> nextEquipmentBit.getAndIncrement());
+            if (bit >>> 6 >= mask.length) {
+                long[] grown = new long[(bit >>> 6) + 1];
+                System.arraycopy(mask, 0, grown, 0, mask.length);
+                mask = grown;
+            }
+            mask[bit >>> 6] |= 1L << bit;
+        }
+        return new IndexedRoom(room, mask);
+    }
+
+    public void remove(int roomId) {
+        rebuildLock.readLock().lock();
+        try {
+            rooms.remove(roomId);
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    public void putAfterCommit(RoomResponseDTO room) {
+        runAfterCommit(() -> put(room));
+    }
+
+    public void removeAfterCommit(int roomId) {
+        runAfterCommit(() -> remove(roomId));
+    }
+
+    // Salas con capacidad suficiente, todo el equipo pedido y, si se indica, libres en [startTime, endTime)
+    public List<RoomResponseDTO> search(int minCapacity, Collection<String> equipment,
+                                        LocalDateTime startTime, LocalDateTime endTime) {
+        List<RoomResponseDTO> result = new ArrayList<>();
+        long[] required = new long[0];
+        for (String item : equipment) {
+            Integer bit = equipmentBits.get(normalize(item));
+            if (bit == null) {
+                return result; // Ninguna sala tiene ese equipo
+            }
+            if (bit >>> 6 >= required.length) {
+                long[] grown = new long[(bit >>> 6) + 1];
+                System.arraycopy(required, 0, grown, 0, required.length);
+                required = grown;
+            }
+            required[bit >>> 6] |= 1L << bit;
+        }
+
+        for (IndexedRoom room : rooms.values()) {
+            if (room.capacity < minCapacity || !room.hasAll(required)) {
+                continue;
+            }
+            if (startTime != null && !bookingIntervalIndex.isFree(room.dto.getId(), startTime, endTime)) {
+                continue;
+            }
+            result.add(room.dto);
+        }
+        result.sort(Comparator.comparingInt(RoomResponseDTO::getId));
+        return result;
+    }
+
+    private static String normalize(String item) {
+        return item.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static final class IndexedRoom {
+        private final RoomResponseDTO dto;
+        private final int capacity;
+        private final long[] equipmentMask;
+
+        IndexedRoom(RoomResponseDTO dto, long[] equipmentMask) {
+            this.dto = dto;
+            this.capacity = dto.getCapacity();
+            this.equipmentMask = equipmentMask;
+        }
+
+        boolean hasAll(long[] required) {
+            for (int word = 0; word < required.length; word++) {
+                long available = word < equipmentMask.length ? equipmentMask[word] : 0L;
+                if ((required[word] & ~available) != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
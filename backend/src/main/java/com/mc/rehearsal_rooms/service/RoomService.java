@@ -5,7 +5,8 @@ import com.mc.rehearsal_rooms.dto.RoomResponseDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
-//import java.util.List;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 public interface RoomService {
@@ -15,4 +16,5 @@ public interface RoomService {
     Optional<RoomResponseDTO> getRoomById(int id);
     Optional<RoomResponseDTO> updateRoom(int id, RoomRequestDTO roomRequestDTO);
     boolean deleteRoom(int id);
+    List<RoomResponseDTO> searchRooms(int minCapacity, List<String> equipment, Instant from, Instant to);
 }
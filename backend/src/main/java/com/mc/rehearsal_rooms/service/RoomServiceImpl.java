@@ -1,7 +1,10 @@
 package com.mc.rehearsal_rooms.service;
 
+import com.mc.rehearsal_rooms.PrimaryReads;
 import com.mc.rehearsal_rooms.dto.RoomRequestDTO;
 import com.mc.rehearsal_rooms.dto.RoomResponseDTO;
+import com.mc.rehearsal_rooms.exception.InvalidDateTimeRangeException;
+import com.mc.rehearsal_rooms.model.CentsConverter;
 import com.mc.rehearsal_rooms.model.Room;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -10,9 +13,14 @@ import com.mc.rehearsal_rooms.repository.RoomRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 
 
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -22,21 +30,29 @@ import java.util.ArrayList;
 @Service
 public class RoomServiceImpl implements RoomService{
     private final RoomRepository roomRepository;
+    private final RoomSearchIndex roomSearchIndex;
+    private final PricingEngine pricingEngine;
 
     @Autowired
-    public RoomServiceImpl(RoomRepository roomRepository) {
+    public RoomServiceImpl(RoomRepository roomRepository, RoomSearchIndex roomSearchIndex, PricingEngine pricingEngine) {
         this.roomRepository = roomRepository;
+        this.roomSearchIndex = roomSearchIndex;
+        this.pricingEngine = pricingEngine;
     }
 
-    private RoomResponseDTO convertToResponseDTO(Room room) {
+    // Se copia el equipo para que el DTO no dependa de la colección perezosa de Hibernate
+    static RoomResponseDTO convertToResponseDTO(Room room) {
         return new RoomResponseDTO(
                 room.getId(),
                 room.getName(),
                 room.getCapacity(),
-                room.getEquipment(),
+                new ArrayList<>(room.getEquipment()),
                 room.getImageUrl(),
                 room.getDescription(),
-                room.getPricePerHour()
+                CentsConverter.toAmount(room.getPricePerHourCents()),
+                CentsConverter.toAmount(room.getPeakPricePerHourCents()),
+                CentsConverter.toAmount(room.getWeekendPricePerHourCents()),
+                room.getMinimumBlockMinutes()
         );
     }
 
@@ -47,16 +63,28 @@ public class RoomServiceImpl implements RoomService{
         room.setEquipment(dto.getEquipment() != null ? new ArrayList<>(dto.getEquipment()) : new ArrayList<>());
         room.setImageUrl(dto.getImageUrl());
         room.setDescription(dto.getDescription());
-        room.setPricePerHour(dto.getPricePerHour());
+        applyPricing(room, dto);
         return room;
     }
 
+    // Los importes del DTO se guardan en céntimos
+    private static void applyPricing(Room room, RoomRequestDTO dto) {
+        room.setPricePerHourCents(CentsConverter.toCents(dto.getPricePerHour()));
+        room.setPeakPricePerHourCents(CentsConverter.toCents(dto.getPeakPricePerHour()));
+        room.setWeekendPricePerHourCents(CentsConverter.toCents(dto.getWeekendPricePerHour()));
+        room.setMinimumBlockMinutes(dto.getMinimumBlockMinutes() != null ? dto.getMinimumBlockMinutes() : 60);
+    }
+
     @Override
     @Transactional
+    @CacheEvict(value = "rooms", allEntries = true)
     public RoomResponseDTO createRoom(RoomRequestDTO roomRequestDTO) {
         Room room = convertToEntity(roomRequestDTO);
         Room savedRoom = roomRepository.save(room);
-        return convertToResponseDTO(savedRoom);
+        RoomResponseDTO roomResponseDTO = convertToResponseDTO(savedRoom);
+        roomSearchIndex.putAfterCommit(roomResponseDTO);
+        pricingEngine.putAfterCommit(savedRoom);
+        return roomResponseDTO;
     }
 
 
@@ -64,8 +92,10 @@ public class RoomServiceImpl implements RoomService{
     @Transactional(readOnly = true)
     @Cacheable("rooms")
     public Page<RoomResponseDTO> getAllRooms(Pageable pageable) {
-        Page<Room> roomPageOnly = roomRepository.findAllRoomsOnly(pageable);
-        List<Room> roomsWithEquipment = roomRepository.findAllWithEquipmentForGivenRooms(roomPageOnly.getContent());
+        // Las lecturas que llenan las cachés "rooms" y "room" van al primario, ver PrimaryReads
+        Page<Room> roomPageOnly = PrimaryReads.call(() -> roomRepository.findAllRoomsOnly(pageable));
+        List<Room> roomsWithEquipment = PrimaryReads.call(
+                () -> roomRepository.findAllWithEquipmentForGivenRooms(roomPageOnly.getContent()));
 
         Map<Integer, Room> roomsWithEquipmentMap = roomsWithEquipment.stream()
                 .collect(Collectors.toMap(Room::getId, room -> room));
@@ -82,14 +112,18 @@ public class RoomServiceImpl implements RoomService{
 
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = "room", key = "#id")
+    @Cacheable(value = "room", key = "#id", unless = "#result == null")
     public Optional<RoomResponseDTO> getRoomById(int id) {
-        return roomRepository.findById(id)
-                .map(this::convertToResponseDTO);
+        return PrimaryReads.call(() -> roomRepository.findById(id)
+                .map(RoomServiceImpl::convertToResponseDTO));
     }
 
     @Override
     @Transactional
+    @Caching(
+            put = @CachePut(value = "room", key = "#id", unless = "#result == null"),
+            evict = @CacheEvict(value = "rooms", allEntries = true)
+    )
     public Optional<RoomResponseDTO> updateRoom(int id, RoomRequestDTO roomRequestDTO) {
         return roomRepository.findById(id)
                 .map(existingRoom -> {
@@ -98,22 +132,47 @@ public class RoomServiceImpl implements RoomService{
                     existingRoom.setEquipment(roomRequestDTO.getEquipment() != null ? new ArrayList<>(roomRequestDTO.getEquipment()) : new ArrayList<>());
                     existingRoom.setImageUrl(roomRequestDTO.getImageUrl());
                     existingRoom.setDescription(roomRequestDTO.getDescription());
-                    existingRoom.setPricePerHour(roomRequestDTO.getPricePerHour()); // Añadido
+                    applyPricing(existingRoom, roomRequestDTO);
                     Room updatedRoom = roomRepository.save(existingRoom);
-                    return convertToResponseDTO(updatedRoom);
+                    RoomResponseDTO roomResponseDTO = convertToResponseDTO(updatedRoom);
+                    roomSearchIndex.putAfterCommit(roomResponseDTO);
+                    pricingEngine.putAfterCommit(updatedRoom);
+                    return roomResponseDTO;
                 });
     }
 
     @Override
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(value = "room", key = "#id"),
+            @CacheEvict(value = "rooms", allEntries = true)
+    })
     public boolean deleteRoom(int id) {
         if (roomRepository.existsById(id)) {
             roomRepository.deleteById(id);
+            roomSearchIndex.removeAfterCommit(id);
+            pricingEngine.removeAfterCommit(id);
             return true;
         }
         return false;
     }
 
+    @Override
+    public List<RoomResponseDTO> searchRooms(int minCapacity, List<String> equipment, Instant from, Instant to) {
+        if ((from == null) != (to == null)) {
+            throw new InvalidDateTimeRangeException("'from' and 'to' must be provided together.");
+        }
+        if (from == null) {
+            return roomSearchIndex.search(minCapacity, equipment, null, null);
+        }
+        if (!from.isBefore(to)) {
+            throw new InvalidDateTimeRangeException("'from' must be before 'to'.");
+        }
+        return roomSearchIndex.search(minCapacity, equipment,
+                LocalDateTime.ofInstant(from, BookingServiceImpl.BUSINESS_ZONE_ID),
+                LocalDateTime.ofInstant(to, BookingServiceImpl.BUSINESS_ZONE_ID));
+    }
+
 
 
 
@@ -0,0 +1,45 @@
+-- Esquema inicial, tal como lo generaba Hibernate con ddl-auto=update antes de usar Flyway (mismos tipos
+-- y nombres de restricciones). Una base existente sin historial de Flyway se marca con esta versión como
+-- línea base (spring.flyway.baseline-on-migrate) y recibe desde V2, así que V1 no debe cambiar nunca:
+-- todo lo que se añada al esquema va en una migración nueva.
+
+CREATE TABLE bookings (
+    id         integer GENERATED BY DEFAULT AS IDENTITY,
+    room_id    integer       NOT NULL,
+    total_cost numeric(12,2) NOT NULL,
+    user_id    integer       NOT NULL,
+    created_at timestamp(6)  NOT NULL,
+    end_time   timestamp(6)  NOT NULL,
+    start_time timestamp(6)  NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE room (
+    capacity       integer       NOT NULL,
+    id             integer GENERATED BY DEFAULT AS IDENTITY,
+    price_per_hour numeric(10,2) NOT NULL,
+    image_url      varchar(2048),
+    name           varchar(255)  NOT NULL,
+    description    oid           NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE room_equipment (
+    room_id        integer NOT NULL,
+    equipment_item varchar(255)
+);
+
+CREATE TABLE users (
+    id         integer GENERATED BY DEFAULT AS IDENTITY,
+    is_admin   boolean DEFAULT FALSE NOT NULL,
+    email      varchar(100) NOT NULL UNIQUE,
+    first_name varchar(100) NOT NULL,
+    last_name  varchar(100) NOT NULL,
+    username   varchar(100) NOT NULL UNIQUE,
+    password   varchar(255) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+ALTER TABLE bookings ADD CONSTRAINT FKathvvidp8xibgf9rd2c6vvkmp FOREIGN KEY (room_id) REFERENCES room;
+ALTER TABLE bookings ADD CONSTRAINT FKeyog2oic85xg7hsu2je2lx3s6 FOREIGN KEY (user_id) REFERENCES users;
+ALTER TABLE room_equipment ADD CONSTRAINT FKqi32u6nxv9y6w769n87o958fj FOREIGN KEY (room_id) REFERENCES room;
@@ -0,0 +1,51 @@
+-- Cambios de esquema que antes aplicaba Hibernate (ddl-auto=update) o db/booking-constraints.sql.
+-- Todo es idempotente: una base marcada como línea base puede tener ya parte de esto si llegó a
+-- arrancar con alguna versión intermedia.
+
+-- Los ids de reservas salen de bookings_seq en bloques de 50 (allocationSize de Booking) en lugar de
+-- una columna IDENTITY, para que Hibernate pueda agrupar los INSERT en lotes JDBC
+ALTER TABLE bookings ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+-- Con el optimizador pooled el siguiente bloque empieza justo después del valor actual: nunca por debajo de los ids existentes
+SELECT setval('bookings_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM bookings), (SELECT last_value FROM bookings_seq)));
+
+-- Evita reservas solapadas de una misma sala aunque haya varias instancias de la aplicación.
+-- Falla si ya hay reservas solapadas: hay que resolverlas antes de migrar
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE bookings
+    ADD COLUMN IF NOT EXISTS time_range tsrange
+    GENERATED ALWAYS AS (tsrange(start_time, end_time, '[)')) STORED;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'bookings_room_time_range_excl') THEN
+        ALTER TABLE bookings
+            ADD CONSTRAINT bookings_room_time_range_excl
+            EXCLUDE USING gist (room_id WITH =, time_range WITH &&);
+    END IF;
+END $$;
+
+-- Tarifas de hora punta y fin de semana y bloque mínimo facturable por sala
+ALTER TABLE room ADD COLUMN IF NOT EXISTS peak_price_per_hour numeric(10,2);
+ALTER TABLE room ADD COLUMN IF NOT EXISTS weekend_price_per_hour numeric(10,2);
+ALTER TABLE room ADD COLUMN IF NOT EXISTS minimum_block_minutes integer NOT NULL DEFAULT 60;
+
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+    id         bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    token_hash varchar(64)    NOT NULL UNIQUE,
+    user_id    integer        NOT NULL REFERENCES users,
+    family_id  uuid           NOT NULL,
+    expires_at timestamptz(6) NOT NULL,
+    revoked    boolean        NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_family_id ON refresh_tokens (family_id);
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_expires_at ON refresh_tokens (expires_at);
+
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    jti        varchar(36)    PRIMARY KEY,
+    expires_at timestamptz(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
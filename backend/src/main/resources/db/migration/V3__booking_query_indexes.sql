@@ -0,0 +1,18 @@
+-- Índices para las consultas de BookingRepository; BookingQueryPlanTest comprueba que ninguna
+-- recorra la tabla entera. IF NOT EXISTS por si algún índice ya se creó a mano.
+
+-- findOverlappingBookings, findSlotsInRooms, findByRoomId: sala por igualdad y rango sobre start_time
+CREATE INDEX IF NOT EXISTS idx_bookings_room_id_start_time ON bookings (room_id, start_time) INCLUDE (end_time);
+
+-- findByUserId, findResponsesByUserId y la paginación por cursor de findUpcomingByUserId*:
+-- mismo orden (start_time, id) que el ORDER BY, así el LIMIT corta sin ordenar
+CREATE INDEX IF NOT EXISTS idx_bookings_user_id_start_time_id ON bookings (user_id, start_time, id);
+
+-- findAllOrderedByStartTime*: listado de administración con el mismo cursor
+CREATE INDEX IF NOT EXISTS idx_bookings_start_time_id ON bookings (start_time, id);
+
+-- findSlotsEndingAfter: el índice de intervalos en memoria se carga con las reservas que aún no terminan
+CREATE INDEX IF NOT EXISTS idx_bookings_end_time ON bookings (end_time);
+
+-- Carga de la colección de equipo de cada sala
+CREATE INDEX IF NOT EXISTS idx_room_equipment_room_id ON room_equipment (room_id);
@@ -0,0 +1,85 @@
+package com.mc.rehearsal_rooms;
+
+import com.mc.rehearsal_rooms.model.User;
+import com.mc.rehearsal_rooms.repository.UserRepository;
+import com.mc.rehearsal_rooms.security.JwtTokenProvider;
+import com.mc.rehearsal_rooms.security.UserPrincipal;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// El registro está abierto a cualquiera: salvo health, el actuator solo es para administradores
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class ActuatorSecurityTest {
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgres.start();
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    void healthIsPublic() throws Exception {
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+    }
+
+    @Test
+    void metricsNeedAnAdminToken() throws Exception {
+        mockMvc.perform(get("/actuator/metrics")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/metrics").header(HttpHeaders.AUTHORIZATION, bearer(false))).andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/prometheus").header(HttpHeaders.AUTHORIZATION, bearer(false))).andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/metrics").header(HttpHeaders.AUTHORIZATION, bearer(true))).andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/prometheus").header(HttpHeaders.AUTHORIZATION, bearer(true))).andExpect(status().isOk());
+    }
+
+    @Test
+    void cachesEndpointIsNotExposed() throws Exception {
+        mockMvc.perform(get("/actuator/caches").header(HttpHeaders.AUTHORIZATION, bearer(true))).andExpect(status().isNotFound());
+        mockMvc.perform(delete("/actuator/caches").header(HttpHeaders.AUTHORIZATION, bearer(true))).andExpect(status().isNotFound());
+    }
+
+    private String bearer(boolean admin) {
+        String username = (admin ? "admin" : "user") + System.nanoTime();
+        User user = userRepository.save(new User(0, username, username + "@example.com", "x", "Ana", "Pérez", admin));
+        List<String> roles = admin ? List.of(UserPrincipal.ROLE_USER, UserPrincipal.ROLE_ADMIN) : List.of(UserPrincipal.ROLE_USER);
+        return "Bearer " + jwtTokenProvider.generateTokenFromUsername(username, user.getId(), roles);
+    }
+}
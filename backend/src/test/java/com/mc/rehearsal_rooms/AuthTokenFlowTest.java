@@ -0,0 +1,247 @@
+package com.mc.rehearsal_rooms;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mc.rehearsal_rooms.security.TokenRevocationList;
+import com.mc.rehearsal_rooms.security.VerifiedTokenCache;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Flujo completo de /api/auth contra una base real: registro, login, rehash de contraseñas, renovación y cierre de la sesión
+@SpringBootTest
+@AutoConfigureMockMvc
+class AuthTokenFlowTest {
+
+    private static final String PASSWORD = "secreto123";
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
+    @Value("${app.jwt.secret}")
+    private String jwtSecret;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgres.start();
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    void replayingARotatedRefreshTokenRevokesTheWholeFamily() throws Exception {
+        String username = register();
+        String first = login(username).get("refreshToken").asText();
+        String second = rotate(first);
+        String third = rotate(second);
+
+        // El primer token ya se usó: repetirlo se trata como robo
+        refresh(first).andExpect(status().isUnauthorized());
+        assertEquals(0, activeTokens(username));
+
+        // El token más reciente, que nunca se había usado, cae con el resto de la familia
+        refresh(third).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void loggedOutTokenIsRejectedEvenWhenAlreadyVerified() throws Exception {
+        JsonNode tokens = login(register());
+        String bearer = "Bearer " + tokens.get("accessToken").asText();
+
+        mockMvc.perform(get("/api/users/me").header(HttpHeaders.AUTHORIZATION, bearer)).andExpect(status().isOk());
+        assertNotNull(verifiedTokenCache.get(tokens.get("accessToken").asText()));
+
+        mockMvc.perform(post("/api/auth/logout")
+                        .header(HttpHeaders.AUTHORIZATION, bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("refreshToken", tokens.get("refreshToken").asText()))))
+                .andExpect(status().isNoContent());
+
+        // La firma ya está verificada en caché; solo la lista de revocación puede rechazarlo
+        mockMvc.perform(get("/api/users/me").header(HttpHeaders.AUTHORIZATION, bearer)).andExpect(status().isUnauthorized());
+        refresh(tokens.get("refreshToken").asText()).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void logoutDoesNotRevokeAnotherUsersRefreshToken() throws Exception {
+        String victim = register();
+        String victimRefresh = login(victim).get("refreshToken").asText();
+        String attackerBearer = "Bearer " + login(register()).get("accessToken").asText();
+
+        mockMvc.perform(post("/api/auth/logout")
+                        .header(HttpHeaders.AUTHORIZATION, attackerBearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("refreshToken", victimRefresh))))
+                .andExpect(status().isForbidden());
+
+        assertEquals(1, activeTokens(victim));
+        rotate(victimRefresh);
+        // El logout rechazado tampoco revocó el access token de quien lo pidió
+        mockMvc.perform(get("/api/users/me").header(HttpHeaders.AUTHORIZATION, attackerBearer)).andExpect(status().isOk());
+    }
+
+    @Test
+    void loggedOutTokenWithoutJtiIsRejected() throws Exception {
+        // Token emitido antes de añadir el jti y los claims uid/roles
+        String legacy = Jwts.builder()
+                .subject(register())
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(jwtSecret.getBytes()), Jwts.SIG.HS512)
+                .compact();
+        String bearer = "Bearer " + legacy;
+        mockMvc.perform(get("/api/users/me").header(HttpHeaders.AUTHORIZATION, bearer)).andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/auth/logout").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isNoContent());
+
+        assertTrue(tokenRevocationList.isRevoked(TokenRevocationList.legacyTokenId(legacy)));
+        mockMvc.perform(get("/api/users/me").header(HttpHeaders.AUTHORIZATION, bearer)).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void rebuildDropsExpiredRevocations() {
+        Instant now = Instant.now();
+        jdbcTemplate.update("INSERT INTO revoked_tokens (jti, expires_at) VALUES (?, ?), (?, ?)",
+                "expired-jti", Timestamp.from(now.minusSeconds(60)), "active-jti", Timestamp.from(now.plusSeconds(600)));
+
+        tokenRevocationList.rebuild();
+
+        assertEquals(List.of("active-jti"), jdbcTemplate.queryForList(
+                "SELECT jti FROM revoked_tokens WHERE jti IN ('expired-jti', 'active-jti')", String.class));
+        assertTrue(tokenRevocationList.isRevoked("active-jti"));
+        assertFalse(tokenRevocationList.isRevoked("expired-jti"));
+    }
+
+    @Test
+    void legacyHashWithoutPrefixIsRehashedOnLogin() throws Exception {
+        String username = insertUser(new BCryptPasswordEncoder(10).encode(PASSWORD));
+
+        login(username);
+
+        String stored = storedPassword(username);
+        assertTrue(stored.startsWith("{bcrypt}$2a$10$"), stored);
+        assertTrue(new BCryptPasswordEncoder().matches(PASSWORD, stored.substring("{bcrypt}".length())));
+    }
+
+    @Test
+    void hashBelowTheConfiguredCostIsRehashedOnLogin() throws Exception {
+        String username = insertUser("{bcrypt}" + new BCryptPasswordEncoder(4).encode(PASSWORD));
+
+        login(username);
+
+        String stored = storedPassword(username);
+        assertTrue(stored.startsWith("{bcrypt}$2a$10$"), stored);
+        // Ya con el coste configurado: el siguiente login no lo vuelve a escribir
+        login(username);
+        assertEquals(stored, storedPassword(username));
+    }
+
+    private String register() throws Exception {
+        String username = "user" + System.nanoTime();
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "username", username,
+                                "email", username + "@example.com",
+                                "password", PASSWORD,
+                                "firstName", "Ana",
+                                "lastName", "Pérez"))))
+                .andExpect(status().isCreated());
+        return username;
+    }
+
+    // El login responde de forma asíncrona desde el pool de login
+    private JsonNode login(String username) throws Exception {
+        MvcResult pending = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("usernameOrEmail", username, "password", PASSWORD))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private String rotate(String refreshToken) throws Exception {
+        String body = refresh(refreshToken).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("refreshToken").asText();
+    }
+
+    private ResultActions refresh(String refreshToken) throws Exception {
+        return mockMvc.perform(post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("refreshToken", refreshToken))));
+    }
+
+    private String insertUser(String passwordHash) {
+        String username = "legacy" + System.nanoTime();
+        jdbcTemplate.update("INSERT INTO users (username, email, password, first_name, last_name) VALUES (?, ?, ?, 'Ana', 'Pérez')",
+                username, username + "@example.com", passwordHash);
+        return username;
+    }
+
+    private String storedPassword(String username) {
+        return jdbcTemplate.queryForObject("SELECT password FROM users WHERE username = ?", String.class, username);
+    }
+
+    private int activeTokens(String username) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM refresh_tokens t JOIN users u ON u.id = t.user_id " +
+                "WHERE u.username = ? AND NOT t.revoked", Integer.class, username);
+    }
+}
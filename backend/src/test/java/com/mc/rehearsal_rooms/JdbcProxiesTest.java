@@ -0,0 +1,52 @@
+package com.mc.rehearsal_rooms;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Los proxies de conexión y sentencia responden por sí mismos a equals, hashCode y unwrap
+class JdbcProxiesTest {
+
+    @Test
+    void countingConnectionAndStatementAreEqualToThemselves() throws SQLException {
+        Connection target = mock(Connection.class);
+        when(target.prepareStatement(anyString())).thenAnswer(invocation -> mock(PreparedStatement.class));
+        StatementCountingDataSource dataSource = new StatementCountingDataSource(dataSource(target));
+
+        Connection connection = dataSource.getConnection();
+        assertIdentity(connection, dataSource.getConnection());
+        assertSame(target, ((ConnectionProxy) connection).getTargetConnection());
+
+        SqlRequestStats.begin();
+        try {
+            PreparedStatement statement = connection.prepareStatement("select 1");
+            assertIdentity(statement, connection.prepareStatement("select 1"));
+            assertSame(statement, statement.unwrap(PreparedStatement.class));
+        } finally {
+            SqlRequestStats.end();
+        }
+    }
+
+    private static void assertIdentity(Object proxy, Object other) {
+        assertEquals(proxy, proxy);
+        assertEquals(proxy.hashCode(), proxy.hashCode());
+        assertNotEquals(proxy, other);
+    }
+
+    private static DataSource dataSource(Connection connection) throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        return dataSource;
+    }
+}
@@ -0,0 +1,64 @@
+package com.mc.rehearsal_rooms;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Con el actuator en un puerto de gestión propio, Prometheus y health no piden token; el resto sí
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "management.server.port=0")
+@AutoConfigureObservability
+class ManagementPortSecurityTest {
+
+    private static EmbeddedPostgres postgres;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgres.start();
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    void scrapeEndpointsAreOpenOnTheManagementPort() {
+        assertEquals(HttpStatus.OK, status(HttpMethod.GET, "/actuator/prometheus"));
+        assertEquals(HttpStatus.OK, status(HttpMethod.GET, "/actuator/health"));
+    }
+
+    @Test
+    void otherEndpointsStillNeedATokenOnTheManagementPort() {
+        assertEquals(HttpStatus.UNAUTHORIZED, status(HttpMethod.GET, "/actuator/metrics"));
+        assertEquals(HttpStatus.UNAUTHORIZED, status(HttpMethod.GET, "/actuator/metrics/jvm.memory.used"));
+    }
+
+    private HttpStatus status(HttpMethod method, String path) {
+        return HttpStatus.valueOf(restTemplate.exchange("http://localhost:" + managementPort + path, method, null, String.class)
+                .getStatusCode().value());
+    }
+}
@@ -1,11 +1,35 @@
 package com.mc.rehearsal_rooms;
 
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
 
+import java.io.IOException;
+
+// Arranca el contexto completo (Flyway, validación del esquema, índices en memoria) contra un PostgreSQL embebido
 @SpringBootTest
 class RehearsalRoomsApplicationTests {
 
+	private static EmbeddedPostgres postgres;
+
+	@DynamicPropertySource
+	static void datasource(DynamicPropertyRegistry registry) throws IOException {
+		postgres = EmbeddedPostgres.start();
+		registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+		registry.add("spring.datasource.username", () -> "postgres");
+		registry.add("spring.datasource.password", () -> "postgres");
+	}
+
+	@AfterAll
+	static void stopDatabase() throws IOException {
+		if (postgres != null) {
+			postgres.close();
+		}
+	}
+
 	@Test
 	void contextLoads() {
 	}
@@ -0,0 +1,100 @@
+package com.mc.rehearsal_rooms;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class ReplicaLagMonitorTest {
+
+    private static final Duration MAX_LAG = Duration.ofSeconds(5);
+
+    private static EmbeddedPostgres postgres;
+
+    @BeforeAll
+    static void startDatabase() throws IOException {
+        postgres = EmbeddedPostgres.start();
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    void primaryOrStandaloneServerIsInSync() {
+        assertEquals(Duration.ZERO, ReplicaLagMonitor.lag(false, false, false, null));
+    }
+
+    @Test
+    void streamingReplicaWithEverythingReplayedIsInSyncEvenIfIdle() {
+        assertEquals(Duration.ZERO, ReplicaLagMonitor.lag(true, true, true, 600_000.0));
+    }
+
+    @Test
+    void streamingReplicaBehindReportsTheAgeOfTheLastReplayedTransaction() {
+        assertEquals(Duration.ofMillis(2500), ReplicaLagMonitor.lag(true, true, false, 2500.0));
+    }
+
+    @Test
+    void disconnectedReceiverIsNotInSyncAlthoughBothPositionsMatch() {
+        // Sin receptor, recibido == aplicado para siempre: manda la antigüedad de lo reproducido
+        assertEquals(Duration.ofMillis(600_000), ReplicaLagMonitor.lag(true, false, true, 600_000.0));
+        assertNull(ReplicaLagMonitor.lag(true, false, true, null));
+    }
+
+    @Test
+    void disconnectedReplicaStopsReceivingReads() {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(mock(DataSource.class), Duration.ofSeconds(5), new SimpleMeterRegistry());
+        monitor.recordLag(ReplicaLagMonitor.lag(true, true, true, 1000.0));
+        assertTrue(monitor.isReplicaUsable());
+
+        monitor.recordLag(ReplicaLagMonitor.lag(true, false, true, 60_000.0));
+        assertFalse(monitor.isReplicaUsable());
+    }
+
+    // check() lee un ResultSet real de Postgres con los valores que devolvería la réplica
+
+    @Test
+    void checkOnAStandaloneServerMarksTheReplicaUsable() {
+        assertTrue(checked("false", "false", "NULL::boolean", "NULL::float8").isReplicaUsable());
+    }
+
+    @Test
+    void checkTreatsAMissingReplayAgeAsUnknownWhenNotStreaming() {
+        // Con WAL recibido pero ninguna transacción reproducida la antigüedad es NULL, no 0 ms
+        assertFalse(checked("true", "false", "true", "NULL::float8").isReplicaUsable());
+    }
+
+    @Test
+    void checkKeepsTheReplayAgeWhenAllReplayedIsNull() {
+        assertFalse(checked("true", "true", "NULL::boolean", "8000.5::float8").isReplicaUsable());
+        assertTrue(checked("true", "true", "NULL::boolean", "1200.0::float8").isReplicaUsable());
+    }
+
+    @Test
+    void checkOnAStreamingReplicaWithEverythingReplayedMarksItUsable() {
+        assertTrue(checked("true", "true", "true", "600000::float8").isReplicaUsable());
+    }
+
+    private static ReplicaLagMonitor checked(String inRecovery, String streaming, String allReplayed, String replayAgeMs) {
+        String query = String.format("SELECT %s AS in_recovery, %s AS streaming, %s AS all_replayed, %s AS replay_age_ms",
+                inRecovery, streaming, allReplayed, replayAgeMs);
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(postgres.getPostgresDatabase(), MAX_LAG, new SimpleMeterRegistry(), query);
+        monitor.check();
+        return monitor;
+    }
+}
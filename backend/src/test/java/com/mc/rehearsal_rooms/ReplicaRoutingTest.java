@@ -0,0 +1,192 @@
+package com.mc.rehearsal_rooms;
+
+import com.mc.rehearsal_rooms.dto.BookingRequestDTO;
+import com.mc.rehearsal_rooms.security.UserPrincipal;
+import com.mc.rehearsal_rooms.service.BookingService;
+import com.mc.rehearsal_rooms.service.RoomSearchIndex;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Dos bases locales independientes hacen de primario y réplica: la réplica tiene el esquema pero no
+// recibe las escrituras, así que se sabe a cuál fue cada lectura por el puerto o por lo que devuelve
+@SpringBootTest(properties = {
+        "app.datasource.replica.read-your-writes-window=1s",
+        "app.datasource.replica.lag-check-interval-ms=3600000"
+})
+class ReplicaRoutingTest {
+
+    private static final ZoneId BUSINESS_ZONE_ID = ZoneId.of("America/Chihuahua");
+
+    private static EmbeddedPostgres primary;
+    private static EmbeddedPostgres replica;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ReplicaLagMonitor lagMonitor;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private RoomSearchIndex roomSearchIndex;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @DynamicPropertySource
+    static void datasources(DynamicPropertyRegistry registry) throws IOException {
+        primary = EmbeddedPostgres.start();
+        replica = EmbeddedPostgres.start();
+        // Las migraciones solo corren en el primario; en una réplica real el esquema llega por replicación
+        Flyway.configure().dataSource(replica.getPostgresDatabase()).load().migrate();
+        registry.add("spring.datasource.url", () -> primary.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+        registry.add("app.datasource.replica.url", () -> replica.getJdbcUrl("postgres", "postgres"));
+    }
+
+    @AfterAll
+    static void stopDatabases() throws IOException {
+        if (primary != null) {
+            primary.close();
+        }
+        if (replica != null) {
+            replica.close();
+        }
+    }
+
+    @BeforeEach
+    void replicaInSync() {
+        lagMonitor.check();
+    }
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        assertEquals(replica.getPort(), serverPort(true));
+        assertEquals(primary.getPort(), serverPort(false));
+        assertEquals(primary.getPort(), jdbcTemplate.queryForObject("SELECT inet_server_port()", Integer.class));
+    }
+
+    @Test
+    void laggingReplicaSendsReadsToThePrimary() {
+        lagMonitor.recordLag(Duration.ofMinutes(1));
+        assertEquals(primary.getPort(), serverPort(true));
+
+        lagMonitor.check();
+        assertEquals(replica.getPort(), serverPort(true));
+    }
+
+    @Test
+    void usersReadTheirOwnBookingsFromThePrimaryAfterChangingThem() throws InterruptedException {
+        UserPrincipal principal = seedUser();
+        int roomId = jdbcTemplate.queryForObject("INSERT INTO room (name, description, capacity, price_per_hour) " +
+                "VALUES ('Sala A', lo_from_bytea(0, 'Sala de ensayo'), 5, 10.00) RETURNING id", Integer.class);
+        ZonedDateTime start = ZonedDateTime.of(LocalDate.now(BUSINESS_ZONE_ID).plusDays(1), LocalTime.NOON, BUSINESS_ZONE_ID);
+
+        authenticate(principal);
+        bookingService.createBooking(new BookingRequestDTO(roomId, start.toInstant(), start.plusHours(1).toInstant()), principal);
+        assertEquals(1, bookingService.getMyBookings(principal, null, 10).getContent().size());
+
+        // Otro usuario no ha escrito nada: su lectura va a la réplica, que no tiene la reserva
+        authenticate(seedUser());
+        assertEquals(0, bookingService.getMyBookings(principal, null, 10).getContent().size());
+
+        authenticate(principal);
+        Thread.sleep(1500);
+        assertEquals(0, bookingService.getMyBookings(principal, null, 10).getContent().size());
+    }
+
+    @Test
+    void cancelledBookingsAreNotCachedAgainFromTheReplica() {
+        UserPrincipal owner = seedUser();
+        int roomId = jdbcTemplate.queryForObject("INSERT INTO room (name, description, capacity, price_per_hour) " +
+                "VALUES ('Sala B', lo_from_bytea(0, 'Sala de ensayo'), 5, 10.00) RETURNING id", Integer.class);
+        LocalDateTime start = LocalDate.now(BUSINESS_ZONE_ID).plusDays(2).atTime(LocalTime.NOON);
+        int bookingId = jdbcTemplate.queryForObject("INSERT INTO bookings (id, room_id, user_id, total_cost, created_at, start_time, end_time) " +
+                "VALUES (nextval('bookings_seq'), ?, ?, 10.00, now(), ?, ?) RETURNING id",
+                Integer.class, roomId, owner.getId(), start, start.plusHours(1));
+
+        // La réplica ya tenía la reserva y todavía no ha recibido la cancelación
+        JdbcTemplate replicaJdbc = new JdbcTemplate(replica.getPostgresDatabase());
+        replicaJdbc.update("INSERT INTO users (id, username, email, password, first_name, last_name) " +
+                "VALUES (?, ?, ?, 'x', 'Ana', 'Pérez')", owner.getId(), owner.getUsername(), owner.getUsername() + "@example.com");
+        replicaJdbc.update("INSERT INTO room (id, name, description, capacity, price_per_hour) " +
+                "VALUES (?, 'Sala B', lo_from_bytea(0, 'Sala de ensayo'), 5, 10.00)", roomId);
+        replicaJdbc.update("INSERT INTO bookings (id, room_id, user_id, total_cost, created_at, start_time, end_time) " +
+                "VALUES (?, ?, ?, 10.00, now(), ?, ?)", bookingId, roomId, owner.getId(), start, start.plusHours(1));
+
+        authenticate(owner);
+        assertTrue(bookingService.cancelBooking(bookingId, owner));
+
+        // Otro usuario sin escrituras recientes falla la caché justo después de la cancelación
+        authenticate(seedUser());
+        assertTrue(bookingService.getBookingById(bookingId).isEmpty());
+        assertNull(cacheManager.getCache("booking").get(bookingId));
+    }
+
+    @Test
+    void roomSearchIndexIsResyncedFromThePrimary() {
+        // Sala creada por otra instancia: solo está en el primario
+        int roomId = jdbcTemplate.queryForObject("INSERT INTO room (name, description, capacity, price_per_hour) " +
+                "VALUES ('Sala C', lo_from_bytea(0, 'Sala de ensayo'), 40, 10.00) RETURNING id", Integer.class);
+
+        roomSearchIndex.resync();
+
+        assertTrue(roomSearchIndex.search(40, List.of(), null, null).stream()
+                .anyMatch(room -> room.getId() == roomId));
+    }
+
+    private int serverPort(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        template.setReadOnly(readOnly);
+        return template.execute(status -> jdbcTemplate.queryForObject("SELECT inet_server_port()", Integer.class));
+    }
+
+    private UserPrincipal seedUser() {
+        String username = "user" + System.nanoTime();
+        int id = jdbcTemplate.queryForObject("INSERT INTO users (username, email, password, first_name, last_name) " +
+                "VALUES (?, ?, 'x', 'Ana', 'Pérez') RETURNING id", Integer.class, username, username + "@example.com");
+        return new UserPrincipal(id, username, "x", List.of(UserPrincipal.ROLE_USER));
+    }
+
+    private static void authenticate(UserPrincipal principal) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
@@ -0,0 +1,100 @@
+package com.mc.rehearsal_rooms;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SqlStatementFilterTest {
+
+    private static final String ROUTE = "/api/bookings/my-bookings";
+
+    private SimpleMeterRegistry meterRegistry;
+    private SqlStatementFilter filter;
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new SqlStatementFilter(new SqlStatsProperties(), meterRegistry);
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenAnswer(invocation -> mock(PreparedStatement.class));
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenReturn(connection);
+        dataSource = new StatementCountingDataSource(target);
+    }
+
+    @Test
+    void lazyLoadPerRowIsFlaggedAsRepeated() throws Exception {
+        // Un listado y después la sala de cada reserva, cargada de forma perezosa
+        perform(connection -> {
+            connection.prepareStatement("select b1_0.id,b1_0.room_id from bookings b1_0 where b1_0.user_id=?").executeQuery();
+            for (int i = 0; i < 6; i++) {
+                connection.prepareStatement("select r1_0.id,r1_0.name from room r1_0 where r1_0.id=?").executeQuery();
+            }
+        });
+
+        assertEquals(7.0, meterRegistry.get("http.server.requests.sql.statements").tag("uri", ROUTE).summary().totalAmount());
+        assertEquals(1.0, meterRegistry.get("http.server.requests.sql.repeated").tag("uri", ROUTE).counter().count());
+        assertEquals(0.0, meterRegistry.get("http.server.requests.sql.over_budget").tag("uri", ROUTE).counter().count());
+    }
+
+    @Test
+    void distinctStatementsAreNotFlagged() throws Exception {
+        perform(connection -> {
+            connection.prepareStatement("select b1_0.id from bookings b1_0 where b1_0.user_id=?").executeQuery();
+            connection.prepareStatement("select r1_0.id from room r1_0 where r1_0.id in (?,?,?)").executeQuery();
+        });
+
+        assertEquals(0.0, meterRegistry.get("http.server.requests.sql.repeated").tag("uri", ROUTE).counter().count());
+    }
+
+    @Test
+    void metersAreRegisteredOncePerRoute() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            perform(connection -> connection.prepareStatement("select 1").executeQuery());
+        }
+
+        assertEquals(1, meterRegistry.find("http.server.requests.sql.statements").summaries().size());
+        assertEquals(3, meterRegistry.get("http.server.requests.sql.statements").tag("uri", ROUTE).summary().count());
+    }
+
+    @Test
+    void shapeReplacesLiteralsAndCollapsesInLists() {
+        assertEquals("select * from room where id = ? and name = ?",
+                SqlRequestStats.shape("select * from room where id = 42 and name = 'Sala ''A'''"));
+        assertEquals("select * from room where price > ?", SqlRequestStats.shape("select * from room where price > 12.50"));
+        assertEquals("select * from room where id in (?)", SqlRequestStats.shape("select * from room where id in (?, ?,?)"));
+        assertEquals(SqlRequestStats.shape("select * from room where id in (?)"),
+                SqlRequestStats.shape("select * from room where id in (1, 2, 3)"));
+        assertEquals("select r1_0.id from room r1_0", SqlRequestStats.shape("select  r1_0.id\n  from room r1_0 "));
+    }
+
+    private void perform(SqlWork work) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", ROUTE);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, ROUTE);
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            try (Connection connection = dataSource.getConnection()) {
+                work.run(connection);
+            } catch (SQLException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+    }
+
+    private interface SqlWork {
+        void run(Connection connection) throws SQLException;
+    }
+}
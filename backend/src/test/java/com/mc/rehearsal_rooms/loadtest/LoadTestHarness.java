@@ -0,0 +1,448 @@
+package com.mc.rehearsal_rooms.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mc.rehearsal_rooms.RehearsalRoomsApplication;
+import com.mc.rehearsal_rooms.dto.BookingRequestDTO;
+import com.mc.rehearsal_rooms.dto.RoomRequestDTO;
+import com.mc.rehearsal_rooms.model.User;
+import com.mc.rehearsal_rooms.repository.UserRepository;
+import com.mc.rehearsal_rooms.security.JwtTokenProvider;
+import com.mc.rehearsal_rooms.security.UserPrincipal;
+import com.mc.rehearsal_rooms.service.BookingService;
+import com.mc.rehearsal_rooms.service.RoomService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Generador de carga autocontenido: arranca PostgreSQL embebido y la aplicación completa, siembra salas,
+ * usuarios y reservas, y lanza una mezcla de peticiones HTTP reales (listado y detalle de salas,
+ * mis reservas, reservar/cancelar y login) desde varios hilos. Al final informa del rendimiento, los
+ * percentiles de latencia por operación y comprueba en la base de datos que no haya reservas solapadas.
+ * No necesita red: los binarios de PostgreSQL vienen en el jar de zonky.
+ * mvn -Ploadtest test [-Dloadtest.threads=32] [-Dloadtest.duration=120] [-Dloadtest.mix=browse=60,book=40]
+ */
+public final class LoadTestHarness {
+
+    // Misma zona de negocio que BookingServiceImpl
+    private static final ZoneId BUSINESS_ZONE_ID = ZoneId.of("America/Chihuahua");
+    private static final int FIRST_HOUR = 10;
+    private static final int SLOTS_PER_DAY = 13; // Bloques de una hora entre las 10:00 y las 23:00
+    private static final String PASSWORD = "loadtest-password";
+    private static final int SEED_CHUNK = 500;
+
+    enum Operation {
+        BROWSE_ROOMS("browse"),
+        ROOM_DETAIL("detail"),
+        MY_BOOKINGS("my-bookings"),
+        CREATE_BOOKING("book"),
+        CANCEL_BOOKING("cancel"), // Sigue a una reserva creada según loadtest.cancel-ratio; no entra en la mezcla
+        LOGIN("login");
+
+        private final String key;
+
+        Operation(String key) {
+            this.key = key;
+        }
+    }
+
+    enum Outcome { OK, CONFLICT, REJECTED, ERROR }
+
+    private record Settings(int rooms, int users, int bookings, int horizonDays, int threads,
+                            Duration warmup, Duration duration, Map<Operation, Integer> mix,
+                            double cancelRatio, long seed, Path resultFile) {
+
+        static Settings fromSystemProperties() {
+            return new Settings(
+                    Integer.getInteger("loadtest.rooms", 50),
+                    Integer.getInteger("loadtest.users", 200),
+                    Integer.getInteger("loadtest.bookings", 2000),
+                    Integer.getInteger("loadtest.horizon-days", 30),
+                    Integer.getInteger("loadtest.threads", 16),
+                    Duration.ofSeconds(Long.getLong("loadtest.warmup", 10)),
+                    Duration.ofSeconds(Long.getLong("loadtest.duration", 60)),
+                    parseMix(System.getProperty("loadtest.mix", "browse=40,detail=20,my-bookings=20,book=15,login=5")),
+                    Double.parseDouble(System.getProperty("loadtest.cancel-ratio", "0.5")),
+                    Long.getLong("loadtest.seed", 42),
+                    Path.of(System.getProperty("loadtest.result-file", "target/loadtest-result.json")));
+        }
+
+        private static Map<Operation, Integer> parseMix(String mix) {
+            Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+            for (String entry : mix.split(",")) {
+                String[] parts = entry.trim().split("=");
+                Operation operation = null;
+                for (Operation candidate : Operation.values()) {
+                    if (candidate != Operation.CANCEL_BOOKING && candidate.key.equals(parts[0].trim())) {
+                        operation = candidate;
+                    }
+                }
+                if (operation == null || parts.length != 2) {
+                    throw new IllegalArgumentException("Invalid loadtest.mix entry: " + entry);
+                }
+                weights.put(operation, Integer.parseInt(parts[1].trim()));
+            }
+            return weights;
+        }
+    }
+
+    private final Settings settings;
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, AtomicLongArray> outcomes = new EnumMap<>(Operation.class);
+    private final AtomicLong createdBookings = new AtomicLong();
+    private final AtomicLong cancelledBookings = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private ObjectMapper objectMapper;
+    private String baseUrl;
+    private List<Integer> roomIds;
+    private List<User> users;
+    private List<String> tokens;
+    private LocalDate firstDay;
+    private int seededBookings;
+    private volatile long measureStartNanos;
+
+    private LoadTestHarness(Settings settings) {
+        this.settings = settings;
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(3));
+            outcomes.put(operation, new AtomicLongArray(Outcome.values().length));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestHarness harness = new LoadTestHarness(Settings.fromSystemProperties());
+        long violations;
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.start()) {
+            violations = harness.run(postgres);
+        }
+        // Un solapamiento es un fallo de corrección, no de rendimiento: se refleja en el código de salida
+        System.exit(violations > 0 ? 1 : 0);
+    }
+
+    private long run(EmbeddedPostgres postgres) throws Exception {
+        // DevTools está en el classpath de test; su reinicio duplicaría el arranque
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        // Como argumentos de línea de comandos, para que tengan prioridad sobre application.properties
+        context = new SpringApplicationBuilder(RehearsalRoomsApplication.class).run(
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=postgres",
+                "--server.port=0",
+                "--logging.level.root=WARN",
+                "--logging.level.com.zaxxer.hikari=WARN",
+                "--logging.level.com.zaxxer.hikari.HikariConfig=WARN",
+                "--logging.level.com.zaxxer.hikari.pool.HikariPool=WARN",
+                "--logging.level.org.hibernate=WARN");
+        try {
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api";
+            httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            objectMapper = context.getBean(ObjectMapper.class);
+            seed();
+            drive();
+            long violations = countOverlappingBookings();
+            Map<String, Object> report = report(violations);
+            printReport(report);
+            writeReport(report);
+            return violations;
+        } finally {
+            context.close();
+        }
+    }
+
+    // Las salas y reservas pasan por los servicios para que los índices en memoria queden al día
+    private void seed() {
+        long start = System.nanoTime();
+        RoomService roomService = context.getBean(RoomService.class);
+        roomIds = new ArrayList<>(settings.rooms());
+        for (int i = 0; i < settings.rooms(); i++) {
+            roomIds.add(roomService.createRoom(new RoomRequestDTO("Sala " + i, 3 + i % 6, List.of("Batería", "Amplificador"),
+                    null, "Sala de ensayo", new BigDecimal("150.00"), new BigDecimal("200.00"), null, null)).getId());
+        }
+
+        // Un solo hash para todos: BCrypt por usuario haría la siembra más lenta que la prueba
+        String passwordHash = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+        List<User> newUsers = new ArrayList<>(settings.users());
+        for (int i = 0; i < settings.users(); i++) {
+            newUsers.add(new User(0, "loaduser" + i, "loaduser" + i + "@example.com", passwordHash, "Load", "User " + i, false));
+        }
+        users = context.getBean(UserRepository.class).saveAll(newUsers);
+        JwtTokenProvider tokenProvider = context.getBean(JwtTokenProvider.class);
+        tokens = new ArrayList<>(users.size());
+        for (User user : users) {
+            tokens.add(tokenProvider.generateTokenFromUsername(user.getUsername(), user.getId(), List.of(UserPrincipal.ROLE_USER)));
+        }
+
+        // Huecos distintos al azar dentro del horizonte, repartidos entre los usuarios
+        firstDay = LocalDate.now(BUSINESS_ZONE_ID).plusDays(1);
+        int totalSlots = settings.rooms() * settings.horizonDays() * SLOTS_PER_DAY;
+        List<Integer> slots = new ArrayList<>(totalSlots);
+        for (int i = 0; i < totalSlots; i++) {
+            slots.add(i);
+        }
+        Collections.shuffle(slots, new Random(settings.seed()));
+        seededBookings = Math.min(settings.bookings(), totalSlots);
+        BookingService bookingService = context.getBean(BookingService.class);
+        for (int from = 0; from < seededBookings; from += SEED_CHUNK) {
+            User user = users.get((from / SEED_CHUNK) % users.size());
+            List<BookingRequestDTO> chunk = new ArrayList<>(SEED_CHUNK);
+            for (int i = from; i < Math.min(from + SEED_CHUNK, seededBookings); i++) {
+                chunk.add(bookingRequest(slots.get(i)));
+            }
+            bookingService.createBookings(chunk, UserPrincipal.create(user));
+        }
+        System.out.printf(Locale.ROOT, "Seeded %d rooms, %d users and %d bookings in %d ms%n", settings.rooms(), users.size(),
+                seededBookings, Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    private BookingRequestDTO bookingRequest(int slot) {
+        int roomId = roomIds.get(slot % settings.rooms());
+        int hourIndex = slot / settings.rooms();
+        LocalDateTime start = firstDay.plusDays(hourIndex / SLOTS_PER_DAY).atTime(FIRST_HOUR + hourIndex % SLOTS_PER_DAY, 0);
+        return new BookingRequestDTO(roomId, start.atZone(BUSINESS_ZONE_ID).toInstant(),
+                start.plusHours(1).atZone(BUSINESS_ZONE_ID).toInstant());
+    }
+
+    private void drive() throws InterruptedException {
+        System.out.printf(Locale.ROOT, "Running %d threads: %d s warm-up, %d s measured, mix %s%n", settings.threads(),
+                settings.warmup().toSeconds(), settings.duration().toSeconds(), settings.mix());
+        long now = System.nanoTime();
+        measureStartNanos = now + settings.warmup().toNanos();
+        long deadline = measureStartNanos + settings.duration().toNanos();
+        List<Thread> workers = new ArrayList<>(settings.threads());
+        for (int i = 0; i < settings.threads(); i++) {
+            SplittableRandom random = new SplittableRandom(settings.seed() + i);
+            Thread worker = new Thread(() -> work(random, deadline), "loadtest-" + i);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    private void work(SplittableRandom random, long deadline) {
+        int totalWeight = settings.mix().values().stream().mapToInt(Integer::intValue).sum();
+        while (System.nanoTime() < deadline) {
+            int user = random.nextInt(users.size());
+            int pick = random.nextInt(totalWeight);
+            for (Map.Entry<Operation, Integer> entry : settings.mix().entrySet()) {
+                pick -= entry.getValue();
+                if (pick < 0) {
+                    execute(entry.getKey(), user, random);
+                    break;
+                }
+            }
+        }
+    }
+
+    private void execute(Operation operation, int user, SplittableRandom random) {
+        switch (operation) {
+            case BROWSE_ROOMS -> send(operation, get("/rooms?page=" + random.nextInt(Math.max(1, settings.rooms() / 10)), null));
+            case ROOM_DETAIL -> send(operation, get("/rooms/" + roomIds.get(random.nextInt(roomIds.size())), null));
+            case MY_BOOKINGS -> send(operation, get("/bookings/my-bookings", tokens.get(user)));
+            case LOGIN -> send(operation, post("/auth/login", null, String.format(
+                    "{\"usernameOrEmail\":\"%s\",\"password\":\"%s\"}", users.get(user).getUsername(), PASSWORD)));
+            case CREATE_BOOKING -> createAndMaybeCancel(user, random);
+            default -> throw new IllegalStateException("Not part of the mix: " + operation);
+        }
+    }
+
+    private void createAndMaybeCancel(int user, SplittableRandom random) {
+        BookingRequestDTO request = bookingRequest(random.nextInt(settings.rooms() * settings.horizonDays() * SLOTS_PER_DAY));
+        String body = String.format("{\"roomId\":%d,\"startTime\":\"%s\",\"endTime\":\"%s\"}",
+                request.getRoomId(), request.getStartTime(), request.getEndTime());
+        HttpResponse<String> created = send(Operation.CREATE_BOOKING, post("/bookings", tokens.get(user), body));
+        if (created == null || created.statusCode() != 201) {
+            return;
+        }
+        createdBookings.incrementAndGet();
+        if (random.nextDouble() < settings.cancelRatio()) {
+            try {
+                int bookingId = objectMapper.readTree(created.body()).get("id").asInt();
+                HttpResponse<String> cancelled = send(Operation.CANCEL_BOOKING, delete("/bookings/" + bookingId, tokens.get(user)));
+                if (cancelled != null && cancelled.statusCode() == 204) {
+                    cancelledBookings.incrementAndGet();
+                }
+            } catch (IOException ex) {
+                outcomes.get(Operation.CANCEL_BOOKING).incrementAndGet(Outcome.ERROR.ordinal());
+            }
+        }
+    }
+
+    private HttpResponse<String> send(Operation operation, HttpRequest request) {
+        long start = System.nanoTime();
+        HttpResponse<String> response = null;
+        Outcome outcome;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            outcome = outcome(response.statusCode());
+        } catch (IOException ex) {
+            outcome = Outcome.ERROR;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        long end = System.nanoTime();
+        if (start >= measureStartNanos) {
+            latencies.get(operation).recordValue(end - start);
+            outcomes.get(operation).incrementAndGet(outcome.ordinal());
+        }
+        return response;
+    }
+
+    // 409 es la respuesta correcta a una reserva ocupada; 503, la del login con la cola llena o la de una sala
+    // con demasiadas solicitudes esperando turno
+    private static Outcome outcome(int status) {
+        if (status >= 200 && status < 300) {
+            return Outcome.OK;
+        }
+        return switch (status) {
+            case 409 -> Outcome.CONFLICT;
+            case 503 -> Outcome.REJECTED;
+            default -> Outcome.ERROR;
+        };
+    }
+
+    private HttpRequest get(String path, String token) {
+        return request(path, token).GET().build();
+    }
+
+    private HttpRequest post(String path, String token, String json) {
+        return request(path, token).header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json)).build();
+    }
+
+    private HttpRequest delete(String path, String token) {
+        return request(path, token).DELETE().build();
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30));
+        return token != null ? builder.header("Authorization", "Bearer " + token) : builder;
+    }
+
+    // La restricción de exclusión debería impedirlo; aquí se comprueba sobre los datos reales
+    private long countOverlappingBookings() throws SQLException {
+        try (Connection connection = context.getBean(DataSource.class).getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "SELECT count(*) FROM bookings a JOIN bookings b ON a.room_id = b.room_id AND a.id < b.id "
+                             + "AND a.start_time < b.end_time AND b.start_time < a.end_time")) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private long countBookings() throws SQLException {
+        try (Connection connection = context.getBean(DataSource.class).getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT count(*) FROM bookings")) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private Map<String, Object> report(long violations) throws SQLException {
+        double seconds = settings.duration().toNanos() / 1e9;
+        Map<String, Object> operations = new LinkedHashMap<>();
+        long totalRequests = 0;
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = latencies.get(operation);
+            AtomicLongArray counts = outcomes.get(operation);
+            long requests = histogram.getTotalCount();
+            if (requests == 0) {
+                continue;
+            }
+            totalRequests += requests;
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("requests", requests);
+            stats.put("throughputPerSecond", requests / seconds);
+            stats.put("p50Ms", millis(histogram.getValueAtPercentile(50)));
+            stats.put("p90Ms", millis(histogram.getValueAtPercentile(90)));
+            stats.put("p99Ms", millis(histogram.getValueAtPercentile(99)));
+            stats.put("p999Ms", millis(histogram.getValueAtPercentile(99.9)));
+            stats.put("maxMs", millis(histogram.getMaxValue()));
+            for (Outcome outcome : Outcome.values()) {
+                stats.put(outcome.name().toLowerCase(Locale.ROOT), counts.get(outcome.ordinal()));
+            }
+            operations.put(operation.key, stats);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("threads", settings.threads());
+        report.put("durationSeconds", settings.duration().toSeconds());
+        report.put("rooms", settings.rooms());
+        report.put("users", settings.users());
+        report.put("seededBookings", seededBookings);
+        report.put("totalRequests", totalRequests);
+        report.put("throughputPerSecond", totalRequests / seconds);
+        report.put("operations", operations);
+        // Reservas creadas y canceladas durante toda la prueba, calentamiento incluido
+        report.put("expectedBookings", seededBookings + createdBookings.get() - cancelledBookings.get());
+        report.put("storedBookings", countBookings());
+        report.put("doubleBookingViolations", violations);
+        return report;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void printReport(Map<String, Object> report) {
+        System.out.printf(Locale.ROOT, "%n%-12s %9s %9s %9s %9s %9s %9s %9s %7s %7s %7s%n",
+                "operation", "requests", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "409", "503", "errors");
+        ((Map<String, Map<String, Object>>) report.get("operations")).forEach((operation, stats) ->
+                System.out.printf(Locale.ROOT, "%-12s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %7d %7d %7d%n", operation,
+                        stats.get("requests"), stats.get("throughputPerSecond"), stats.get("p50Ms"), stats.get("p90Ms"),
+                        stats.get("p99Ms"), stats.get("p999Ms"), stats.get("maxMs"),
+                        stats.get("conflict"), stats.get("rejected"), stats.get("error")));
+        System.out.printf(Locale.ROOT, "%nTotal: %d requests, %.1f req/s%n", report.get("totalRequests"), report.get("throughputPerSecond"));
+        System.out.printf(Locale.ROOT, "Bookings: %d stored, %d expected%n", report.get("storedBookings"), report.get("expectedBookings"));
+        System.out.printf(Locale.ROOT, "Double-booking violations: %d%n", report.get("doubleBookingViolations"));
+    }
+
+    private void writeReport(Map<String, Object> report) throws IOException {
+        Path resultFile = settings.resultFile();
+        if (resultFile.getParent() != null) {
+            Files.createDirectories(resultFile.getParent());
+        }
+        objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValue(resultFile.toFile(), report);
+        System.out.println("Results written to " + resultFile.toAbsolutePath());
+    }
+}
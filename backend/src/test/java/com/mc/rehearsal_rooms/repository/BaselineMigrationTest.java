@@ -0,0 +1,105 @@
+package com.mc.rehearsal_rooms.repository;
+
+import com.mc.rehearsal_rooms.dto.BookingRequestDTO;
+import com.mc.rehearsal_rooms.dto.BookingResponseDTO;
+import com.mc.rehearsal_rooms.security.UserPrincipal;
+import com.mc.rehearsal_rooms.service.BookingService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Una base creada por la versión anterior (Hibernate con ddl-auto=update, sin historial de Flyway) tiene que
+// arrancar con ddl-auto=validate: se marca como V1 y las migraciones siguientes completan el esquema
+@SpringBootTest
+class BaselineMigrationTest {
+
+    private static final ZoneId BUSINESS_ZONE_ID = ZoneId.of("America/Chihuahua");
+    private static final int LEGACY_BOOKINGS = 3;
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) throws IOException, SQLException {
+        postgres = EmbeddedPostgres.start();
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/hibernate-baseline-schema.sql"));
+            statement.execute("INSERT INTO users (username, email, password, first_name, last_name) " +
+                    "VALUES ('legacy', 'legacy@example.com', 'x', 'Ana', 'Pérez')");
+            statement.execute("INSERT INTO room (name, description, capacity, price_per_hour) " +
+                    "VALUES ('Sala A', lo_from_bytea(0, 'Sala de ensayo'), 5, 10.00)");
+            statement.execute("INSERT INTO room_equipment (room_id, equipment_item) VALUES (1, 'Batería')");
+            // Ids 1..3 de la columna IDENTITY, que las reservas nuevas no pueden repetir
+            for (int i = 0; i < LEGACY_BOOKINGS; i++) {
+                statement.execute("INSERT INTO bookings (room_id, user_id, start_time, end_time, created_at, total_cost) " +
+                        "VALUES (1, 1, timestamp '2030-01-01 10:00' + interval '1 day' * " + i + ", " +
+                        "timestamp '2030-01-01 11:00' + interval '1 day' * " + i + ", now(), 10.00)");
+            }
+        }
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    void legacyDatabaseIsBaselinedAtV1AndMigratedFromV2() {
+        List<String> history = jdbcTemplate.queryForList(
+                "SELECT version || ':' || type || ':' || success FROM flyway_schema_history " +
+                "WHERE version IS NOT NULL ORDER BY installed_rank", String.class);
+        assertEquals(List.of("1:BASELINE:true", "2:SQL:true", "3:SQL:true"), history);
+    }
+
+    @Test
+    void newBookingIdsContinueAfterTheLegacyOnes() {
+        ZonedDateTime start = ZonedDateTime.of(LocalDate.now(BUSINESS_ZONE_ID).plusDays(1), LocalTime.NOON, BUSINESS_ZONE_ID);
+        UserPrincipal principal = new UserPrincipal(1, "legacy", "x", List.of(UserPrincipal.ROLE_USER));
+
+        BookingResponseDTO booking = bookingService.createBooking(
+                new BookingRequestDTO(1, start.toInstant(), start.plusHours(1).toInstant()), principal);
+
+        assertTrue(booking.getId() > LEGACY_BOOKINGS, "booking id " + booking.getId() + " reuses a legacy id");
+    }
+
+    @Test
+    void exclusionConstraintCoversLegacyRows() {
+        DataIntegrityViolationException ex = assertThrows(DataIntegrityViolationException.class, () ->
+                jdbcTemplate.update("INSERT INTO bookings (id, room_id, user_id, start_time, end_time, created_at, total_cost) " +
+                        "VALUES (nextval('bookings_seq'), 1, 1, timestamp '2030-01-01 10:30', timestamp '2030-01-01 11:30', now(), 10.00)"));
+        assertEquals("23P01", ((SQLException) ex.getMostSpecificCause()).getSQLState());
+    }
+}
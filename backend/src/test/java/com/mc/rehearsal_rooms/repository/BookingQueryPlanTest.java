@@ -0,0 +1,206 @@
+package com.mc.rehearsal_rooms.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Ejecuta EXPLAIN sobre el SQL que genera cada consulta del repositorio (esquema de las migraciones,
+// datos sembrados) y falla si alguna recorre una tabla entera, ya sea con Seq Scan o recorriendo un
+// índice completo sin condición (lo que elige el planificador cuando no tiene índice útil y no puede usar Seq Scan)
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.mc.rehearsal_rooms.repository.BookingQueryPlanTest$CapturingInspector"
+})
+class BookingQueryPlanTest {
+
+    private static final int ROOMS = 20;
+    private static final int USERS = 50;
+    private static final int BOOKINGS = 5000;
+
+    // Lecturas completas por diseño: pueden recorrer un índice entero para salir ordenadas
+    private static final Set<String> FULL_READS = Set.of("streamAllForExport");
+
+    // Nodos que consumen toda su entrada antes de devolver filas: un Limit por encima no acota lo que leen
+    private static final Set<String> BLOCKING_NODES = Set.of("Sort", "Hash", "Aggregate", "Materialize");
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgres.start();
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    @BeforeAll
+    static void seed(@Autowired JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("INSERT INTO room (name, description, capacity, price_per_hour) " +
+                "SELECT 'Sala ' || g, lo_from_bytea(0, 'Sala de ensayo'), 5, 10.00 FROM generate_series(1, ?) g", ROOMS);
+        jdbcTemplate.update("INSERT INTO room_equipment (room_id, equipment_item) SELECT id, 'Batería' FROM room");
+        jdbcTemplate.update("INSERT INTO users (username, email, password, first_name, last_name) " +
+                "SELECT 'user' || g, 'user' || g || '@example.com', 'x', 'Ana', 'Pérez' FROM generate_series(1, ?) g", USERS);
+        // Una hora distinta por reserva dentro de cada sala, así la restricción de exclusión no interviene
+        jdbcTemplate.update("INSERT INTO bookings (id, room_id, user_id, start_time, end_time, created_at, total_cost) " +
+                "SELECT g, (SELECT min(id) FROM room) + g % ?, (SELECT min(id) FROM users) + g % ?, " +
+                "timestamp '2030-01-01 10:00' + (g / ?) * interval '1 hour', " +
+                "timestamp '2030-01-01 11:00' + (g / ?) * interval '1 hour', now(), 10.00 " +
+                "FROM generate_series(1, ?) g", ROOMS, USERS, ROOMS, ROOMS, BOOKINGS);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    void repositoryQueriesUseIndexes() throws SQLException, IOException {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 5, 10, 0);
+        LocalDateTime to = from.plusHours(3);
+        PageRequest firstPage = PageRequest.of(0, 10);
+
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("findOverlappingBookings", () -> bookingRepository.findOverlappingBookings(1, from, to));
+        queries.put("findSlotsEndingAfter", () -> bookingRepository.findSlotsEndingAfter(to));
+        queries.put("findSlotsInRooms", () -> bookingRepository.findSlotsInRooms(List.of(1, 2, 3), from, to));
+        queries.put("findByUserId", () -> bookingRepository.findByUserId(1));
+        queries.put("findByRoomId", () -> bookingRepository.findByRoomId(1));
+        queries.put("findResponseById", () -> bookingRepository.findResponseById(1));
+        queries.put("findResponsesByUserId", () -> bookingRepository.findResponsesByUserId(1));
+        queries.put("findUpcomingByUserId", () -> bookingRepository.findUpcomingByUserId(1, from, firstPage));
+        queries.put("findUpcomingByUserIdAfterCursor", () -> bookingRepository.findUpcomingByUserIdAfterCursor(1, from, to, 1, firstPage));
+        queries.put("findAllOrderedByStartTime", () -> bookingRepository.findAllOrderedByStartTime(firstPage));
+        queries.put("findAllOrderedByStartTimeAfterCursor", () -> bookingRepository.findAllOrderedByStartTimeAfterCursor(to, 1, firstPage));
+        queries.put("streamAllForExport", () -> transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<?> rows = bookingRepository.streamAllForExport()) {
+                rows.findFirst();
+            }
+        }));
+        queries.put("findByUsername", () -> userRepository.findByUsername("user1"));
+        queries.put("findByTokenHashWithUser", () -> refreshTokenRepository.findByTokenHashWithUser("0".repeat(64)));
+
+        List<String> fullScans = new ArrayList<>();
+        for (Map.Entry<String, Runnable> query : queries.entrySet()) {
+            List<String> statements = capture(query.getValue());
+            assertFalse(statements.isEmpty(), query.getKey() + " issued no SQL");
+            for (String sql : statements) {
+                JsonNode plan = explain(sql);
+                List<String> scans = new ArrayList<>();
+                collectFullScans(plan, false, FULL_READS.contains(query.getKey()), scans);
+                if (!scans.isEmpty()) {
+                    fullScans.add(query.getKey() + ": " + scans + "\n" + sql + "\n" + plan.toPrettyString());
+                }
+            }
+        }
+        assertTrue(fullScans.isEmpty(), "Full table scans:\n\n" + String.join("\n\n", fullScans));
+    }
+
+    // Bajo un Limit, recorrer un índice sin condición ni filtro es la forma correcta de leer las primeras filas en orden
+    private static void collectFullScans(JsonNode node, boolean underLimit, boolean fullRead, List<String> scans) {
+        String nodeType = node.path("Node Type").asText();
+        String relation = node.path("Relation Name").asText();
+        boolean indexScan = nodeType.equals("Index Scan") || nodeType.equals("Index Only Scan");
+        if (nodeType.equals("Seq Scan")
+                || (indexScan && !node.has("Index Cond") && !fullRead && (!underLimit || node.has("Filter")))) {
+            scans.add(nodeType + " on " + relation);
+        }
+        boolean limit = nodeType.equals("Limit") || (underLimit && !BLOCKING_NODES.contains(nodeType));
+        for (JsonNode child : node.path("Plans")) {
+            collectFullScans(child, limit, fullRead, scans);
+        }
+    }
+
+    private static List<String> capture(Runnable query) {
+        CapturingInspector.STATEMENTS.clear();
+        query.run();
+        return new ArrayList<>(CapturingInspector.STATEMENTS);
+    }
+
+    // Plan genérico (sin depender de los valores) y con enable_seqscan=off: si aun así aparece un Seq Scan,
+    // es que ningún índice sirve para esa consulta, sea cual sea el tamaño de la tabla
+    private JsonNode explain(String sql) throws SQLException, IOException {
+        StringBuilder parameterized = new StringBuilder();
+        int parameters = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                parameterized.append('$').append(++parameters);
+            } else {
+                parameterized.append(c);
+            }
+        }
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("SET enable_seqscan = off");
+            statement.execute("SET plan_cache_mode = force_generic_plan");
+            statement.execute("PREPARE plan_check AS " + parameterized);
+            String nulls = String.join(", ", Collections.nCopies(parameters, "NULL"));
+            try (ResultSet resultSet = statement.executeQuery(
+                    "EXPLAIN (FORMAT JSON) EXECUTE plan_check" + (parameters > 0 ? "(" + nulls + ")" : ""))) {
+                resultSet.next();
+                return OBJECT_MAPPER.readTree(resultSet.getString(1)).get(0).get("Plan");
+            } finally {
+                statement.execute("DEALLOCATE plan_check");
+                statement.execute("RESET enable_seqscan");
+                statement.execute("RESET plan_cache_mode");
+            }
+        }
+    }
+
+    public static class CapturingInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.mc.rehearsal_rooms.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+    private static final int INSERTIONS = 20_000;
+
+    @Test
+    void everyAddedValueIsFound() {
+        BloomFilter filter = new BloomFilter(INSERTIONS, 0.01);
+        String[] values = new String[INSERTIONS];
+        for (int i = 0; i < INSERTIONS; i++) {
+            values[i] = UUID.randomUUID().toString();
+            filter.add(values[i]);
+        }
+        for (String value : values) {
+            assertTrue(filter.mightContain(value), value);
+        }
+    }
+
+    @Test
+    void valuesBeyondTheExpectedInsertionsAreStillFound() {
+        BloomFilter filter = new BloomFilter(16, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.add("jti-" + i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(filter.mightContain("jti-" + i));
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTheConfiguredOne() {
+        BloomFilter filter = new BloomFilter(INSERTIONS, 0.01);
+        for (int i = 0; i < INSERTIONS; i++) {
+            filter.add(UUID.randomUUID().toString());
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < INSERTIONS; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+        // 1 % esperado; el margen evita fallos por azar
+        assertTrue(falsePositives < INSERTIONS * 0.02, falsePositives + " false positives");
+    }
+}
@@ -0,0 +1,81 @@
+package com.mc.rehearsal_rooms.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Coste de autenticar una petición con JWT: validación + extracción del usuario (sin la carga del usuario en BD)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtValidationBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret-benchmark-secret-0123456789";
+
+    private JwtTokenProvider tokenProvider;
+    private VerifiedTokenCache verifiedTokenCache;
+    private SecretKey secretKey;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecretString", SECRET);
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpirationInMs", 3_600_000);
+        tokenProvider.init();
+        secretKey = Keys.hmacShaKeyFor(SECRET.getBytes());
+        token = tokenProvider.generateTokenFromUsername("drummer", 1, List.of(UserPrincipal.ROLE_USER));
+
+        verifiedTokenCache = new VerifiedTokenCache(new SimpleMeterRegistry(), 10_000);
+        Claims claims = tokenProvider.parseValidatedClaims(token).orElseThrow();
+        verifiedTokenCache.put(token, tokenProvider.getPrincipalFromClaims(claims), claims.getExpiration());
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return tokenProvider.generateTokenFromUsername("drummer", 1, List.of(UserPrincipal.ROLE_USER));
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return tokenProvider.validateToken(token);
+    }
+
+    // Comportamiento anterior: validateToken + getUsernameFromJWT, cada uno con un parser nuevo y su propia verificación
+    @Benchmark
+    public String parserPerCallTwice() {
+        Jwts.parser().verifyWith(secretKey).build().parseSignedClaims(token);
+        Claims claims = Jwts.parser().verifyWith(secretKey).build().parseSignedClaims(token).getPayload();
+        return claims.getSubject();
+    }
+
+    @Benchmark
+    public String sharedParserOnce() {
+        return tokenProvider.parseValidatedClaims(token).map(Claims::getSubject).orElse(null);
+    }
+
+    // Token repetido: solo el SHA-256 del token y la búsqueda en el caché
+    @Benchmark
+    public String verifiedTokenCacheHit() {
+        return verifiedTokenCache.get(token).getUsername();
+    }
+}
@@ -0,0 +1,64 @@
+package com.mc.rehearsal_rooms.security;
+
+import com.mc.rehearsal_rooms.model.RevokedToken;
+import com.mc.rehearsal_rooms.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationListTest {
+
+    private RevokedTokenRepository revokedTokenRepository;
+    private TokenRevocationList revocationList;
+
+    @BeforeEach
+    void setUp() {
+        revokedTokenRepository = mock(RevokedTokenRepository.class);
+        revocationList = new TokenRevocationList(revokedTokenRepository, new SimpleMeterRegistry(), 0.01);
+    }
+
+    @Test
+    void revokedTokenIsReportedAsRevoked() {
+        Instant expiresAt = Instant.now().plus(15, ChronoUnit.MINUTES);
+
+        revocationList.revoke("jti-1", expiresAt);
+
+        assertTrue(revocationList.isRevoked("jti-1"));
+        assertFalse(revocationList.isRevoked("jti-2"));
+        assertFalse(revocationList.isRevoked(null));
+        verify(revokedTokenRepository).save(any(RevokedToken.class));
+    }
+
+    @Test
+    void alreadyExpiredTokenIsNotStored() {
+        revocationList.revoke("jti-1", Instant.now().minusSeconds(1));
+
+        assertFalse(revocationList.isRevoked("jti-1"));
+        verify(revokedTokenRepository, never()).save(any(RevokedToken.class));
+    }
+
+    @Test
+    void rebuildKeepsOnlyTheActiveRevocations() {
+        revocationList.revoke("expired", Instant.now().plusSeconds(60));
+        when(revokedTokenRepository.findActive(any())).thenReturn(
+                List.of(new RevokedToken("other-instance", Instant.now().plus(15, ChronoUnit.MINUTES))));
+
+        revocationList.rebuild();
+
+        verify(revokedTokenRepository).deleteExpired(any());
+        assertTrue(revocationList.isRevoked("other-instance"));
+        assertFalse(revocationList.isRevoked("expired"));
+    }
+}
@@ -0,0 +1,200 @@
+package com.mc.rehearsal_rooms.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mc.rehearsal_rooms.dto.BookingRequestDTO;
+import com.mc.rehearsal_rooms.model.Room;
+import com.mc.rehearsal_rooms.model.User;
+import com.mc.rehearsal_rooms.repository.RoomRepository;
+import com.mc.rehearsal_rooms.repository.UserRepository;
+import com.mc.rehearsal_rooms.security.JwtTokenProvider;
+import com.mc.rehearsal_rooms.security.UserPrincipal;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Una reserva que el índice en memoria no conoce (p. ej. creada por otra instancia) la detiene la
+// restricción de exclusión: la respuesta es 409 y el turno de la sala se libera con el rollback
+@SpringBootTest(properties = {
+        "app.booking.admission.timeout-ms=500",
+        "app.booking-index.verify-interval-ms=3600000"
+})
+@AutoConfigureMockMvc
+class BookingConflictConstraintTest {
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private RoomAdmission roomAdmission;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private User user;
+    private Room room;
+    private String bearer;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgres.start();
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @BeforeEach
+    void seed() {
+        String username = "drummer" + System.nanoTime();
+        user = userRepository.save(new User(0, username, username + "@example.com", "secret", "Ana", "Pérez", false));
+        room = roomRepository.save(new Room(0, "Sala", "Sala de ensayo", new ArrayList<>(List.of("Batería")),
+                5, null, 1000, null, null, 60));
+        bearer = "Bearer " + jwtTokenProvider.generateTokenFromUsername(username, user.getId(), List.of(UserPrincipal.ROLE_USER));
+    }
+
+    @Test
+    void overlapUnknownToTheIndexIsRejectedByTheDatabase() throws Exception {
+        LocalDateTime start = LocalDate.now(BookingServiceImpl.BUSINESS_ZONE_ID).plusDays(1).atTime(11, 0);
+        insertBehindTheIndex(start, start.plusHours(1));
+        assertFalse(bookingIntervalIndex.overlaps(room.getId(), start.plusMinutes(30), start.plusMinutes(90)));
+
+        book(start.plusMinutes(30), start.plusMinutes(90)).andExpect(status().isConflict());
+
+        assertEquals(1, bookingsInRoom());
+    }
+
+    @Test
+    void roomTurnIsReleasedWhenTheInsertRollsBack() throws Exception {
+        LocalDateTime start = LocalDate.now(BookingServiceImpl.BUSINESS_ZONE_ID).plusDays(2).atTime(11, 0);
+        insertBehindTheIndex(start, start.plusHours(1));
+        book(start, start.plusHours(1)).andExpect(status().isConflict());
+
+        // Los locks son reentrantes: solo otro hilo notaría un turno que no se liberó (esperaría 500 ms y daría 503)
+        int otherThreadStatus = CompletableFuture.supplyAsync(() -> {
+            try {
+                return book(start.plusHours(1), start.plusHours(2)).andReturn().getResponse().getStatus();
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        }).get(10, TimeUnit.SECONDS);
+
+        assertEquals(201, otherThreadStatus);
+        assertEquals(2, bookingsInRoom());
+    }
+
+    @Test
+    void busyRoomIsAnsweredAsUnavailableInsteadOfConflict() throws Exception {
+        LocalDateTime start = LocalDate.now(BookingServiceImpl.BUSINESS_ZONE_ID).plusDays(3).atTime(11, 0);
+        double conflictsBefore = rejections("conflict");
+        double busyBefore = rejections("room_busy");
+
+        // Otro hilo tiene el turno de la sala durante toda su transacción
+        CountDownLatch admitted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            roomAdmission.admit(room.getId());
+            admitted.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        try {
+            assertTrue(admitted.await(10, TimeUnit.SECONDS));
+            book(start, start.plusHours(1))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"));
+        } finally {
+            release.countDown();
+            holder.get(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(busyBefore + 1, rejections("room_busy"));
+        assertEquals(conflictsBefore, rejections("conflict"));
+        assertEquals(0, bookingsInRoom());
+    }
+
+    private double rejections(String reason) {
+        return meterRegistry.get("booking.create.rejected").tag("reason", reason).counter().count();
+    }
+
+    private void insertBehindTheIndex(LocalDateTime start, LocalDateTime end) {
+        jdbcTemplate.update("INSERT INTO bookings (id, room_id, user_id, start_time, end_time, created_at, total_cost) " +
+                        "VALUES (nextval('bookings_seq'), ?, ?, ?, ?, now(), 10.00)",
+                room.getId(), user.getId(), Timestamp.valueOf(start), Timestamp.valueOf(end));
+    }
+
+    private ResultActions book(LocalDateTime start, LocalDateTime end) throws Exception {
+        BookingRequestDTO request = new BookingRequestDTO(room.getId(),
+                start.atZone(BookingServiceImpl.BUSINESS_ZONE_ID).toInstant(),
+                end.atZone(BookingServiceImpl.BUSINESS_ZONE_ID).toInstant());
+        return mockMvc.perform(post("/api/bookings")
+                .header(HttpHeaders.AUTHORIZATION, bearer)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)));
+    }
+
+    private int bookingsInRoom() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM bookings WHERE room_id = ?", Integer.class, room.getId());
+    }
+}
@@ -0,0 +1,41 @@
+package com.mc.rehearsal_rooms.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BookingExportCsvTest {
+
+    @Test
+    void formulaLikeValuesAreWrittenAsText() throws IOException {
+        assertEquals("'=cmd|' /C calc'!A0", csv("=cmd|' /C calc'!A0"));
+        assertEquals("'+1", csv("+1"));
+        assertEquals("'-2+3", csv("-2+3"));
+        assertEquals("'@SUM(A1)", csv("@SUM(A1)"));
+        assertEquals("'\tcmd", csv("\tcmd"));
+    }
+
+    @Test
+    void prefixedValuesAreStillQuotedWhenNeeded() throws IOException {
+        assertEquals("\"'=1,2\"", csv("=1,2"));
+        assertEquals("\"'=\"\"x\"\"\"", csv("=\"x\""));
+    }
+
+    @Test
+    void ordinaryValuesAreUnchanged() throws IOException {
+        assertEquals("Sala A", csv("Sala A"));
+        assertEquals("ana-perez", csv("ana-perez"));
+        assertEquals("\"Sala, grande\"", csv("Sala, grande"));
+        assertEquals("", csv(""));
+        assertEquals("", csv(null));
+    }
+
+    private static String csv(String value) throws IOException {
+        StringWriter writer = new StringWriter();
+        BookingExportServiceImpl.writeCsvField(writer, value);
+        return writer.toString();
+    }
+}
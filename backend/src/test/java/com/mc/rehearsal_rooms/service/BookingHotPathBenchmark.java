@@ -0,0 +1,118 @@
+package com.mc.rehearsal_rooms.service;
+
+import com.mc.rehearsal_rooms.dto.BookingQuoteDTO;
+import com.mc.rehearsal_rooms.dto.BookingRequestDTO;
+import com.mc.rehearsal_rooms.dto.BookingResponseDTO;
+import com.mc.rehearsal_rooms.dto.RoomResponseDTO;
+import com.mc.rehearsal_rooms.model.Booking;
+import com.mc.rehearsal_rooms.model.Room;
+import com.mc.rehearsal_rooms.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Pasos en memoria de crear y devolver una reserva: precio, reglas de horario y conversión a DTO
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingHotPathBenchmark {
+
+    private static final int QUOTE_BATCH_SIZE = 100;
+    // Fuera de la caché de Integer (-128..127), como las salas de una base con historia
+    private static final int ROOM_ID = 4217;
+
+    private Room room;
+    private PricingEngine pricingEngine;
+    private BigDecimal legacyPricePerHour;
+    private BookingServiceImpl quoteService;
+    private List<BookingRequestDTO> quoteBatch;
+    private Booking booking;
+    private Instant requestStart;
+    private Instant requestEnd;
+
+    @Setup
+    public void setUp() {
+        room = new Room(ROOM_ID, "Sala " + ROOM_ID, "Sala de ensayo", new ArrayList<>(List.of("Batería", "Amplificador", "Micrófono")),
+                5, null, 1250, 1500L, 1800L, 60);
+        pricingEngine = new PricingEngine(null, "18:00", "23:00");
+        pricingEngine.put(room);
+        quoteService = new BookingServiceImpl(null, null, null, null, null, pricingEngine, null, null);
+        User user = new User(1, "drummer", "drummer@example.com", "secret", "Ana", "Pérez", false);
+        LocalDateTime start = LocalDate.now(BookingServiceImpl.BUSINESS_ZONE_ID).plusDays(1).atTime(11, 0);
+        booking = new Booking(1, room, user, start, start.plusMinutes(150), LocalDateTime.now(), 0);
+        booking.setTotalCostCents(pricingEngine.priceCents(room, booking.getStartTime(), booking.getEndTime()));
+        legacyPricePerHour = new BigDecimal("12.50");
+        requestStart = start.atZone(BookingServiceImpl.BUSINESS_ZONE_ID).toInstant();
+        requestEnd = start.plusMinutes(150).atZone(BookingServiceImpl.BUSINESS_ZONE_ID).toInstant();
+        quoteBatch = new ArrayList<>(QUOTE_BATCH_SIZE);
+        for (int i = 0; i < QUOTE_BATCH_SIZE; i++) {
+            LocalDateTime quoteStart = start.plusDays(i % 7).withHour(10 + i % 10);
+            quoteBatch.add(new BookingRequestDTO(room.getId(),
+                    quoteStart.atZone(BookingServiceImpl.BUSINESS_ZONE_ID).toInstant(),
+                    quoteStart.plusHours(1 + i % 3).atZone(BookingServiceImpl.BUSINESS_ZONE_ID).toInstant()));
+        }
+    }
+
+    // Cálculo anterior de Booking.calculateTotalCost: Duration, Math.ceil y BigDecimal en cada reserva
+    @Benchmark
+    public BigDecimal legacyCalculateTotalCost() {
+        Duration duration = Duration.between(booking.getStartTime(), booking.getEndTime());
+        long minutes = duration.toMinutes();
+        if (minutes <= 0) {
+            return BigDecimal.ZERO;
+        }
+        BigDecimal hours = BigDecimal.valueOf(Math.ceil(minutes / 60.0));
+        return legacyPricePerHour.multiply(hours).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    // Como en createBooking: búsqueda en la tabla por id, comprobación de tarifas y cálculo
+    @Benchmark
+    public long pricingEngine() {
+        return pricingEngine.priceCents(room, booking.getStartTime(), booking.getEndTime());
+    }
+
+    // Lo que hace createBooking antes de tocar la base de datos: pasar a hora local y validar la ventana
+    @Benchmark
+    public LocalDateTime validateBookingWindow() {
+        LocalDateTime start = LocalDateTime.ofInstant(requestStart, BookingServiceImpl.BUSINESS_ZONE_ID);
+        LocalDateTime end = LocalDateTime.ofInstant(requestEnd, BookingServiceImpl.BUSINESS_ZONE_ID);
+        BookingServiceImpl.validateBookingWindow(start, end, LocalDateTime.now(BookingServiceImpl.BUSINESS_ZONE_ID));
+        return start;
+    }
+
+    // POST /api/bookings/quote sin HTTP ni JSON: quotes/s = QUOTE_BATCH_SIZE / tiempo por operación
+    @Benchmark
+    public List<BookingQuoteDTO> quoteBatch() {
+        return quoteService.quoteBookings(quoteBatch);
+    }
+
+    @Benchmark
+    public BookingResponseDTO bookingToResponseDTO() {
+        return BookingServiceImpl.convertToResponseDTO(booking, "drummer");
+    }
+
+    @Benchmark
+    public RoomResponseDTO roomToResponseDTO() {
+        return RoomServiceImpl.convertToResponseDTO(room);
+    }
+}
@@ -0,0 +1,168 @@
+package com.mc.rehearsal_rooms.service;
+
+import com.mc.rehearsal_rooms.dto.BookingSlotDTO;
+import com.mc.rehearsal_rooms.repository.BookingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Mapa de ocupación: franjas de 15 minutos desde hoy a medianoche, 64 franjas por palabra.
+// La palabra 2 empieza en la franja 128 (mañana a las 08:00) y la 3 en la 192 (pasado mañana a las 00:00)
+class BookingIntervalIndexTest {
+
+    private static final int ROOM_ID = 1;
+
+    private BookingIntervalIndex index;
+    private LocalDateTime origin;
+    private int nextBookingId;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookingIntervalIndex(null, 120);
+        origin = LocalDate.now(BookingServiceImpl.BUSINESS_ZONE_ID).atStartOfDay();
+    }
+
+    @Test
+    void touchingIntervalsDoNotOverlap() {
+        BookingSlotDTO booking = book(at(1, 10, 0), at(1, 11, 0));
+
+        assertFalse(index.overlaps(ROOM_ID, at(1, 11, 0), at(1, 12, 0)));
+        assertFalse(index.overlaps(ROOM_ID, at(1, 9, 0), at(1, 10, 0)));
+        assertTrue(index.findOverlapping(ROOM_ID, at(1, 11, 0), at(1, 12, 0)).isEmpty());
+        assertTrue(index.findOverlapping(ROOM_ID, at(1, 9, 0), at(1, 10, 0)).isEmpty());
+
+        assertTrue(index.overlaps(ROOM_ID, at(1, 10, 59), at(1, 12, 0)));
+        assertTrue(index.overlaps(ROOM_ID, at(1, 9, 0), at(1, 10, 1)));
+        assertEquals(List.of(booking), index.findOverlapping(ROOM_ID, at(1, 9, 30), at(1, 10, 30)));
+    }
+
+    @Test
+    void removedBookingNoLongerOverlaps() {
+        BookingSlotDTO removed = book(at(1, 10, 0), at(1, 11, 0));
+        BookingSlotDTO kept = book(at(1, 12, 0), at(1, 13, 0));
+
+        index.remove(removed);
+
+        assertFalse(index.overlaps(ROOM_ID, at(1, 10, 0), at(1, 11, 0)));
+        assertTrue(index.isFree(ROOM_ID, at(1, 10, 0), at(1, 11, 0)));
+        assertEquals(List.of(kept), index.findOverlapping(ROOM_ID, at(1, 9, 0), at(1, 14, 0)));
+    }
+
+    @Test
+    void verifyRebuildsAnIndexThatDriftedFromTheDatabase() {
+        BookingRepository bookingRepository = mock(BookingRepository.class);
+        index = new BookingIntervalIndex(bookingRepository, 120);
+        BookingSlotDTO shared = new BookingSlotDTO(1, ROOM_ID, at(1, 10, 0), at(1, 11, 0));
+        BookingSlotDTO otherInstance = new BookingSlotDTO(2, ROOM_ID, at(1, 14, 0), at(1, 15, 0));
+        BookingSlotDTO cancelledElsewhere = new BookingSlotDTO(3, ROOM_ID, at(1, 17, 0), at(1, 18, 0));
+        when(bookingRepository.findSlotsEndingAfter(any())).thenReturn(List.of(shared, cancelledElsewhere));
+        index.rebuild();
+
+        // Otra instancia crea una reserva y cancela otra; este índice no se entera
+        when(bookingRepository.findSlotsEndingAfter(any())).thenReturn(List.of(shared, otherInstance));
+        assertTrue(index.isFree(ROOM_ID, at(1, 14, 0), at(1, 15, 0)));
+
+        assertFalse(index.verify());
+
+        assertFalse(index.isFree(ROOM_ID, at(1, 14, 0), at(1, 15, 0)));
+        assertTrue(index.isFree(ROOM_ID, at(1, 17, 0), at(1, 18, 0)));
+        assertFalse(index.overlaps(ROOM_ID, at(1, 17, 0), at(1, 18, 0)));
+        assertFalse(index.isFree(ROOM_ID, at(1, 10, 0), at(1, 11, 0)));
+        assertTrue(index.verify());
+    }
+
+    @Test
+    void bookingAcrossAWordBoundaryOccupiesBothWords() {
+        book(at(1, 7, 30), at(1, 8, 30)); // Franjas 126..129
+
+        assertFalse(index.isFree(ROOM_ID, at(1, 7, 45), at(1, 8, 0)));
+        assertFalse(index.isFree(ROOM_ID, at(1, 8, 0), at(1, 8, 15)));
+        assertFalse(index.isFree(ROOM_ID, at(1, 8, 15), at(1, 8, 30)));
+        assertTrue(index.isFree(ROOM_ID, at(1, 7, 0), at(1, 7, 30)));
+        assertTrue(index.isFree(ROOM_ID, at(1, 8, 30), at(1, 9, 0)));
+    }
+
+    @Test
+    void bookingFillingAWholeWordDoesNotSpillIntoItsNeighbours() {
+        book(at(1, 8, 0), at(2, 0, 0)); // Exactamente la palabra 2
+
+        assertFalse(index.isFree(ROOM_ID, at(1, 8, 0), at(1, 8, 15)));
+        assertFalse(index.isFree(ROOM_ID, at(1, 23, 45), at(2, 0, 0)));
+        assertTrue(index.isFree(ROOM_ID, at(1, 7, 45), at(1, 8, 0)));
+        assertTrue(index.isFree(ROOM_ID, at(2, 0, 0), at(2, 0, 15)));
+    }
+
+    @Test
+    void endOfABookingIsExclusive() {
+        book(at(1, 10, 0), at(1, 11, 0));
+
+        assertTrue(index.isFree(ROOM_ID, at(1, 11, 0), at(1, 12, 0)));
+        assertTrue(index.isFree(ROOM_ID, at(1, 9, 0), at(1, 10, 0)));
+        assertFalse(index.isFree(ROOM_ID, at(1, 10, 45), at(1, 11, 15)));
+    }
+
+    @Test
+    void unalignedRequestInAPartlyOccupiedSlotIsCheckedExactly() {
+        book(at(1, 10, 0), at(1, 10, 20)); // Ocupa parte de la franja de las 10:15
+
+        assertTrue(index.isFree(ROOM_ID, at(1, 10, 20), at(1, 10, 30)));
+        assertFalse(index.isFree(ROOM_ID, at(1, 10, 10), at(1, 10, 25)));
+        assertFalse(index.isFree(ROOM_ID, at(1, 10, 15), at(1, 10, 30))); // Alineada: manda el mapa de bits
+    }
+
+    @Test
+    void removingABookingKeepsTheSlotItSharesWithItsNeighbour() {
+        BookingSlotDTO first = book(at(1, 10, 0), at(1, 10, 20));
+        book(at(1, 10, 20), at(1, 11, 0));
+
+        index.remove(first);
+
+        assertTrue(index.isFree(ROOM_ID, at(1, 10, 0), at(1, 10, 15)));
+        assertTrue(index.isFree(ROOM_ID, at(1, 10, 0), at(1, 10, 20)));
+        assertFalse(index.isFree(ROOM_ID, at(1, 10, 15), at(1, 10, 30)));
+    }
+
+    @Test
+    void removingABookingKeepsTheSlotItSharesWithThePreviousOne() {
+        book(at(1, 10, 0), at(1, 10, 40));
+        BookingSlotDTO second = book(at(1, 10, 40), at(1, 11, 0));
+
+        index.remove(second);
+
+        assertFalse(index.isFree(ROOM_ID, at(1, 10, 30), at(1, 10, 45)));
+        assertTrue(index.isFree(ROOM_ID, at(1, 10, 45), at(1, 11, 0)));
+    }
+
+    @Test
+    void intervalsOutsideTheMapFallBackToTheExactIndex() {
+        index = new BookingIntervalIndex(null, 2); // El mapa acaba pasado mañana a las 00:00
+        book(at(1, 23, 30), at(2, 1, 0));
+        book(at(5, 10, 0), at(5, 11, 0));
+
+        assertFalse(index.isFree(ROOM_ID, at(1, 23, 45), at(2, 0, 0)));
+        assertFalse(index.isFree(ROOM_ID, at(2, 0, 30), at(2, 1, 0)));
+        assertTrue(index.isFree(ROOM_ID, at(2, 1, 0), at(2, 2, 0)));
+        assertFalse(index.isFree(ROOM_ID, at(5, 10, 30), at(5, 11, 30)));
+        assertTrue(index.isFree(ROOM_ID, at(5, 11, 0), at(5, 12, 0)));
+    }
+
+    private BookingSlotDTO book(LocalDateTime start, LocalDateTime end) {
+        BookingSlotDTO slot = new BookingSlotDTO(++nextBookingId, ROOM_ID, start, end);
+        index.add(slot);
+        return slot;
+    }
+
+    private LocalDateTime at(int day, int hour, int minute) {
+        return origin.plusDays(day).withHour(hour).withMinute(minute);
+    }
+}
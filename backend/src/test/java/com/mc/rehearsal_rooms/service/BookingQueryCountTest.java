@@ -0,0 +1,185 @@
+package com.mc.rehearsal_rooms.service;
+
+import com.mc.rehearsal_rooms.dto.BookingExportFormat;
+import com.mc.rehearsal_rooms.dto.BookingRequestDTO;
+import com.mc.rehearsal_rooms.dto.BookingResponseDTO;
+import com.mc.rehearsal_rooms.dto.CursorPageDTO;
+import com.mc.rehearsal_rooms.model.Booking;
+import com.mc.rehearsal_rooms.model.Room;
+import com.mc.rehearsal_rooms.model.User;
+import com.mc.rehearsal_rooms.repository.BookingRepository;
+import com.mc.rehearsal_rooms.repository.RoomRepository;
+import com.mc.rehearsal_rooms.repository.UserRepository;
+import com.mc.rehearsal_rooms.security.UserPrincipal;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Cuenta las sentencias SQL de los listados de reservas: deben ser constantes, no una por reserva
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+class BookingQueryCountTest {
+
+    private static final int BOOKINGS = 30;
+
+    // El usuario viene del principal, así que cada listado es una sola consulta
+    private static final long MAX_STATEMENTS_PER_LISTING = 1;
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingExportService bookingExportService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgres.start();
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @BeforeEach
+    void seed() {
+        bookingRepository.deleteAll();
+        roomRepository.deleteAll();
+        userRepository.deleteAll();
+
+        user = userRepository.save(new User(0, "drummer", "drummer@example.com", "secret", "Ana", "Pérez", false));
+        List<Room> rooms = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            rooms.add(roomRepository.save(new Room(0, "Sala " + i, "Sala de ensayo", new ArrayList<>(List.of("Batería")),
+                    5, null, 1000, null, null, 60)));
+        }
+
+        LocalDate firstDay = LocalDate.now(BookingServiceImpl.BUSINESS_ZONE_ID).plusDays(1);
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            LocalDateTime start = firstDay.plusDays(i).atTime(11, 0);
+            bookings.add(new Booking(0, rooms.get(i % rooms.size()), user, start, start.plusHours(1), null, 1000));
+        }
+        bookingRepository.saveAll(bookings);
+    }
+
+    @Test
+    void allBookingsPageUsesConstantStatements() {
+        Statistics statistics = statistics();
+        CursorPageDTO<BookingResponseDTO> page = bookingService.getAllBookings(null, 20);
+
+        assertEquals(20, page.getContent().size());
+        assertEquals("Sala 0", page.getContent().get(0).getRoomName());
+        assertStatementBudget(statistics);
+    }
+
+    @Test
+    void myBookingsPageUsesConstantStatements() {
+        Statistics statistics = statistics();
+        UserPrincipal principal = UserPrincipal.create(user);
+        CursorPageDTO<BookingResponseDTO> page = bookingService.getMyBookings(principal, null, 20);
+        CursorPageDTO<BookingResponseDTO> next = bookingService.getMyBookings(principal, page.getNextCursor(), 20);
+
+        assertEquals(BOOKINGS, page.getContent().size() + next.getContent().size());
+        assertEquals("drummer", next.getContent().get(0).getUsername());
+        assertTrue(statistics.getPrepareStatementCount() <= 2 * MAX_STATEMENTS_PER_LISTING,
+                "Listing issued " + statistics.getPrepareStatementCount() + " statements");
+    }
+
+    @Test
+    void createAndCancelDoNotReloadTheUser() {
+        UserPrincipal principal = UserPrincipal.create(user);
+        int roomId = roomRepository.findAll().get(0).getId();
+        LocalDateTime start = LocalDate.now(BookingServiceImpl.BUSINESS_ZONE_ID).plusDays(1).atTime(15, 0);
+        BookingRequestDTO request = new BookingRequestDTO(roomId,
+                start.atZone(BookingServiceImpl.BUSINESS_ZONE_ID).toInstant(),
+                start.plusHours(2).atZone(BookingServiceImpl.BUSINESS_ZONE_ID).toInstant());
+
+        Statistics statistics = statistics();
+        BookingResponseDTO created = bookingService.createBooking(request, principal);
+        // Sala + siguiente bloque de la secuencia + INSERT
+        assertTrue(statistics.getPrepareStatementCount() <= 3,
+                "Create issued " + statistics.getPrepareStatementCount() + " statements");
+        assertEquals("drummer", created.getUsername());
+
+        statistics.clear();
+        assertTrue(bookingService.cancelBooking(created.getId(), principal));
+        // Reserva + DELETE
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void bookingsByUserUseConstantStatements() {
+        Statistics statistics = statistics();
+        List<BookingResponseDTO> bookings = bookingService.getBookingsByUserId(user.getId());
+
+        assertEquals(BOOKINGS, bookings.size());
+        // Comprobación de que el usuario existe + la consulta del listado
+        assertTrue(statistics.getPrepareStatementCount() <= MAX_STATEMENTS_PER_LISTING + 1,
+                "Listing issued " + statistics.getPrepareStatementCount() + " statements");
+    }
+
+    @Test
+    void exportStreamsAllBookingsInOneStatement() {
+        Statistics statistics = statistics();
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        long rows = bookingExportService.exportBookings(BookingExportFormat.CSV, csv);
+
+        assertEquals(BOOKINGS, rows);
+        assertEquals(BOOKINGS + 1, csv.toString(StandardCharsets.UTF_8).lines().count());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    private static void assertStatementBudget(Statistics statistics) {
+        assertTrue(statistics.getPrepareStatementCount() <= MAX_STATEMENTS_PER_LISTING,
+                "Listing issued " + statistics.getPrepareStatementCount() + " statements");
+    }
+}
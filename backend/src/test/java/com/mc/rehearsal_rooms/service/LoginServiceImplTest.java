@@ -0,0 +1,77 @@
+package com.mc.rehearsal_rooms.service;
+
+import com.mc.rehearsal_rooms.controller.AuthController;
+import com.mc.rehearsal_rooms.exception.GlobalExceptionHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Un hilo de login y una cola de uno: el tercer login simultáneo se rechaza sin esperar
+class LoginServiceImplTest {
+
+    private static final String LOGIN = "{\"usernameOrEmail\":\"ana\",\"password\":\"secreto123\"}";
+
+    private final CountDownLatch releaseHash = new CountDownLatch(1);
+    private final CountDownLatch hashStarted = new CountDownLatch(1);
+    private SimpleMeterRegistry meterRegistry;
+    private LoginServiceImpl loginService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        AuthenticationManager authenticationManager = mock(AuthenticationManager.class);
+        when(authenticationManager.authenticate(any())).thenAnswer(invocation -> {
+            hashStarted.countDown();
+            releaseHash.await(10, TimeUnit.SECONDS);
+            throw new BadCredentialsException("Bad credentials");
+        });
+        meterRegistry = new SimpleMeterRegistry();
+        loginService = new LoginServiceImpl(authenticationManager, mock(RefreshTokenService.class), meterRegistry, 1, 1);
+        mockMvc = MockMvcBuilders.standaloneSetup(new AuthController(null, loginService, null, null, null))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseHash.countDown();
+        loginService.shutdown();
+    }
+
+    @Test
+    void saturatedQueueAnswers503WithRetryAfter() throws Exception {
+        login().andExpect(request().asyncStarted());
+        assertTrue(hashStarted.await(10, TimeUnit.SECONDS));
+        login().andExpect(request().asyncStarted());
+
+        login().andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"));
+
+        assertEquals(1, meterRegistry.get("auth.login").tag("outcome", "rejected").timer().count());
+    }
+
+    private ResultActions login() throws Exception {
+        return mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(LOGIN));
+    }
+}
@@ -0,0 +1,154 @@
+package com.mc.rehearsal_rooms.service;
+
+import com.mc.rehearsal_rooms.model.Room;
+import com.mc.rehearsal_rooms.repository.RoomRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// 2030-01-07 es lunes y 2030-01-05 sábado; horario punta por defecto de 18:00 a 23:00
+class PricingEngineTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2030, 1, 7);
+    private static final LocalDate SATURDAY = LocalDate.of(2030, 1, 5);
+
+    private RoomRepository roomRepository;
+    private PricingEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        roomRepository = mock(RoomRepository.class);
+        engine = new PricingEngine(roomRepository, "18:00", "23:00");
+    }
+
+    @Test
+    void refreshPicksUpRatesChangedByAnotherInstance() {
+        when(roomRepository.findAll()).thenReturn(List.of(room(1, 1000), room(2, 2000)));
+        engine.rebuild();
+        assertEquals(0, engine.refresh());
+
+        when(roomRepository.findAll()).thenReturn(List.of(room(1, 1500), room(3, 3000)));
+        assertEquals(3, engine.refresh());
+
+        assertTrue(engine.rates(1).matches(room(1, 1500)));
+        assertNull(engine.rates(2));
+        assertTrue(engine.rates(3).matches(room(3, 3000)));
+    }
+
+    @Test
+    void changesFromThisInstanceSurviveAnInSyncRefresh() {
+        when(roomRepository.findAll()).thenReturn(List.of(room(1, 1000)));
+        engine.rebuild();
+
+        engine.put(room(1, 1200));
+        when(roomRepository.findAll()).thenReturn(List.of(room(1, 1200)));
+
+        assertEquals(0, engine.refresh());
+        assertTrue(engine.rates(1).matches(room(1, 1200)));
+    }
+
+    @Test
+    void eachBlockIsChargedAtTheRateInForceWhenItStarts() {
+        Room room = room(1, 1250, 1500L, null, 60);
+
+        assertEquals(3750, price(room, MONDAY.atTime(10, 0), MONDAY.atTime(12, 30)));
+        assertEquals(1250 + 1500, price(room, MONDAY.atTime(17, 0), MONDAY.atTime(19, 0)));
+        assertEquals(1250, price(room, MONDAY.atTime(17, 30), MONDAY.atTime(18, 30))); // Empieza antes de la punta
+        assertEquals(1500 + 1250, price(room, MONDAY.atTime(22, 0), MONDAY.atTime(23, 30))); // 23:00 ya no es punta
+    }
+
+    @Test
+    void peakWindowCanCrossMidnight() {
+        engine = new PricingEngine(roomRepository, "22:00", "02:00");
+        Room room = room(1, 1000, 2000L, null, 60);
+
+        assertEquals(2000 + 2000, price(room, MONDAY.atTime(23, 0), MONDAY.plusDays(1).atTime(1, 0)));
+        assertEquals(2000 + 1000, price(room, MONDAY.atTime(1, 0), MONDAY.atTime(3, 0)));
+        assertEquals(1000 + 2000, price(room, MONDAY.atTime(21, 0), MONDAY.atTime(23, 0)));
+        assertEquals(1000, price(room, MONDAY.atTime(12, 0), MONDAY.atTime(13, 0)));
+    }
+
+    @Test
+    void weekendRateTakesPrecedenceOverPeak() {
+        Room withWeekend = room(1, 1250, 1500L, 1800L, 60);
+        Room withoutWeekend = room(2, 1250, 1500L, null, 60);
+
+        assertEquals(1800, price(withWeekend, SATURDAY.atTime(19, 0), SATURDAY.atTime(20, 0)));
+        assertEquals(1800, price(withWeekend, SATURDAY.plusDays(1).atTime(10, 0), SATURDAY.plusDays(1).atTime(11, 0)));
+        assertEquals(1500, price(withoutWeekend, SATURDAY.atTime(19, 0), SATURDAY.atTime(20, 0)));
+        // Del domingo al lunes cambia la tarifa en el bloque que empieza a medianoche
+        assertEquals(1800 + 1250, price(withWeekend, MONDAY.minusDays(1).atTime(23, 0), MONDAY.atTime(1, 0)));
+    }
+
+    @Test
+    void bookingsAreRoundedUpToWholeBlocks() {
+        assertEquals(1875, price(room(1, 1250, null, null, 30), MONDAY.atTime(10, 0), MONDAY.atTime(11, 10)));
+        assertEquals(1875, price(room(1, 1250, null, null, 45), MONDAY.atTime(10, 0), MONDAY.atTime(10, 50)));
+        assertEquals(1875, price(room(1, 1250, null, null, 90), MONDAY.atTime(10, 0), MONDAY.atTime(11, 0)));
+        assertEquals(625, price(room(1, 1250, null, null, 30), MONDAY.atTime(10, 0), MONDAY.atTime(10, 30)));
+    }
+
+    @Test
+    void blocksWithMixedRatesAreRoundedOnceToTheCent() {
+        // 45 + 45 minutos a 10,01 y 15,01 por hora: 7,5075 + 11,2575 = 18,765
+        Room room = room(1, 1001, 1501L, null, 45);
+        assertEquals(1877, price(room, MONDAY.atTime(17, 15), MONDAY.atTime(18, 45)));
+        // Medio céntimo redondea hacia arriba
+        assertEquals(501, price(room(1, 1001, null, null, 30), MONDAY.atTime(10, 0), MONDAY.atTime(10, 30)));
+        assertEquals(250, price(room(1, 1001, null, null, 15), MONDAY.atTime(10, 0), MONDAY.atTime(10, 15)));
+    }
+
+    @Test
+    void emptyOrReversedBookingsCostNothing() {
+        Room room = room(1, 1250, null, null, 60);
+        assertEquals(0, price(room, MONDAY.atTime(10, 0), MONDAY.atTime(10, 0)));
+        assertEquals(0, price(room, MONDAY.atTime(11, 0), MONDAY.atTime(10, 0)));
+    }
+
+    @Test
+    void sixtyMinuteBlocksMatchTheLegacyCalculation() {
+        LocalDateTime start = MONDAY.atTime(9, 0);
+        for (long cents : new long[]{1, 999, 1250, 4599, 12345}) {
+            Room room = room(1, cents, null, null, 60);
+            for (int minutes = 0; minutes <= 600; minutes++) {
+                BigDecimal legacy = legacyCalculateTotalCost(BigDecimal.valueOf(cents, 2), minutes);
+                assertEquals(legacy.movePointRight(2).longValueExact(), price(room, start, start.plusMinutes(minutes)),
+                        cents + " cents per hour for " + minutes + " minutes");
+            }
+        }
+    }
+
+    private long price(Room room, LocalDateTime start, LocalDateTime end) {
+        return engine.priceCents(room, start, end);
+    }
+
+    // Booking.calculateTotalCost antes del motor de precios
+    private static BigDecimal legacyCalculateTotalCost(BigDecimal pricePerHour, long minutes) {
+        if (minutes <= 0) {
+            return BigDecimal.ZERO.setScale(2);
+        }
+        BigDecimal hours = BigDecimal.valueOf(Math.ceil(minutes / 60.0));
+        return pricePerHour.multiply(hours).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static Room room(int id, long pricePerHourCents) {
+        return room(id, pricePerHourCents, null, null, 60);
+    }
+
+    private static Room room(int id, long pricePerHourCents, Long peakCents, Long weekendCents, int blockMinutes) {
+        return new Room(id, "Sala " + id, "Sala de ensayo", new ArrayList<>(), 5, null,
+                pricePerHourCents, peakCents, weekendCents, blockMinutes);
+    }
+}
@@ -0,0 +1,65 @@
+package com.mc.rehearsal_rooms.service;
+
+import com.mc.rehearsal_rooms.dto.AvailabilitySlotDTO;
+import com.mc.rehearsal_rooms.dto.BookingSlotDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Disponibilidad de una sala para un mes completo con varias reservas por día
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoomAvailabilityBenchmark {
+
+    private static final int ROOM_ID = 1;
+
+    @Param({"31", "93"})
+    public int days;
+
+    @Param({"6"})
+    public int bookingsPerDay;
+
+    private BookingIntervalIndex index;
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    @Setup
+    public void setUp() {
+        index = new BookingIntervalIndex(null, 120);
+        LocalDate firstDay = LocalDate.now(BookingServiceImpl.BUSINESS_ZONE_ID).plusDays(1);
+        int bookingId = 0;
+        for (int day = 0; day < days; day++) {
+            LocalDateTime opening = firstDay.plusDays(day).atTime(10, 0);
+            // Reservas de una hora separadas por huecos de una hora
+            for (int i = 0; i < bookingsPerDay; i++) {
+                LocalDateTime start = opening.plusHours(2L * i);
+                index.add(new BookingSlotDTO(++bookingId, ROOM_ID, start, start.plusHours(1)));
+            }
+        }
+        from = firstDay.atStartOfDay();
+        to = firstDay.plusDays(days).atStartOfDay();
+    }
+
+    @Benchmark
+    public List<AvailabilitySlotDTO> freeSlotsFromIndex() {
+        List<BookingSlotDTO> bookings = index.findOverlapping(ROOM_ID, from, to);
+        return BookingServiceImpl.computeFreeSlots(bookings, from, to);
+    }
+}
@@ -0,0 +1,112 @@
+package com.mc.rehearsal_rooms.service;
+
+import com.mc.rehearsal_rooms.dto.AvailabilitySlotDTO;
+import com.mc.rehearsal_rooms.dto.BookingSlotDTO;
+import com.mc.rehearsal_rooms.exception.InvalidDateTimeRangeException;
+import com.mc.rehearsal_rooms.repository.RoomRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Horario de reservas de 10:00 a 23:00; los huecos se devuelven como instantes de la zona del negocio
+class RoomAvailabilityTest {
+
+    private static final int ROOM_ID = 1;
+    private static final LocalDate DAY = LocalDate.of(2030, 1, 7);
+
+    @Test
+    void dayWithoutBookingsIsFreeFromOpeningToClosing() {
+        assertEquals(List.of(slot(at(0, 10, 0), at(0, 23, 0))),
+                free(List.of(), at(0, 0, 0), at(1, 0, 0)));
+    }
+
+    @Test
+    void bookingsAtOpeningAndClosingLeaveNoEmptyGapAtTheEdges() {
+        List<BookingSlotDTO> bookings = List.of(
+                booking(1, at(0, 10, 0), at(0, 11, 0)),
+                booking(2, at(0, 22, 0), at(0, 23, 0)));
+
+        assertEquals(List.of(slot(at(0, 11, 0), at(0, 22, 0))),
+                free(bookings, at(0, 0, 0), at(1, 0, 0)));
+    }
+
+    @Test
+    void adjacentBookingsLeaveNoGapBetweenThem() {
+        List<BookingSlotDTO> bookings = List.of(
+                booking(1, at(0, 12, 0), at(0, 13, 0)),
+                booking(2, at(0, 13, 0), at(0, 14, 0)));
+
+        assertEquals(List.of(slot(at(0, 10, 0), at(0, 12, 0)), slot(at(0, 14, 0), at(0, 23, 0))),
+                free(bookings, at(0, 0, 0), at(1, 0, 0)));
+    }
+
+    @Test
+    void rangeInsideOpeningHoursIsClippedToTheRange() {
+        List<BookingSlotDTO> bookings = List.of(booking(1, at(0, 12, 0), at(0, 13, 0)));
+
+        assertEquals(List.of(slot(at(0, 11, 30), at(0, 12, 0)), slot(at(0, 13, 0), at(0, 15, 0))),
+                free(bookings, at(0, 11, 30), at(0, 15, 0)));
+        // Empieza dentro de una reserva: el primer hueco es al terminarla
+        assertEquals(List.of(slot(at(0, 13, 0), at(0, 15, 0))),
+                free(bookings, at(0, 12, 30), at(0, 15, 0)));
+    }
+
+    @Test
+    void bookingUntilMidnightOnlyAffectsItsOwnDay() {
+        List<BookingSlotDTO> bookings = List.of(booking(1, at(0, 21, 0), at(1, 0, 0)));
+
+        assertEquals(List.of(slot(at(0, 10, 0), at(0, 21, 0)), slot(at(1, 10, 0), at(1, 23, 0))),
+                free(bookings, at(0, 0, 0), at(2, 0, 0)));
+    }
+
+    @Test
+    void rangeOutsideOpeningHoursHasNoSlots() {
+        assertEquals(List.of(), free(List.of(), at(0, 23, 0), at(1, 10, 0)));
+    }
+
+    @Test
+    void availabilityCoversUpToNinetyThreeDays() {
+        BookingServiceImpl service = service();
+        LocalDateTime from = LocalDate.now(BookingServiceImpl.BUSINESS_ZONE_ID).plusDays(1).atStartOfDay();
+
+        assertEquals(93, service.getRoomAvailability(ROOM_ID, instant(from), instant(from.plusDays(93))).size());
+        assertThrows(InvalidDateTimeRangeException.class, () ->
+                service.getRoomAvailability(ROOM_ID, instant(from), instant(from.plusDays(93).plusSeconds(1))));
+        assertThrows(InvalidDateTimeRangeException.class, () ->
+                service.getRoomAvailability(ROOM_ID, instant(from), instant(from)));
+    }
+
+    private static BookingServiceImpl service() {
+        RoomRepository roomRepository = mock(RoomRepository.class);
+        when(roomRepository.existsById(ROOM_ID)).thenReturn(true);
+        return new BookingServiceImpl(null, roomRepository, null, new BookingIntervalIndex(null, 120), null, null, null, null);
+    }
+
+    private static List<AvailabilitySlotDTO> free(List<BookingSlotDTO> bookings, LocalDateTime from, LocalDateTime to) {
+        return BookingServiceImpl.computeFreeSlots(bookings, from, to);
+    }
+
+    private static BookingSlotDTO booking(int id, LocalDateTime start, LocalDateTime end) {
+        return new BookingSlotDTO(id, ROOM_ID, start, end);
+    }
+
+    private static AvailabilitySlotDTO slot(LocalDateTime start, LocalDateTime end) {
+        return new AvailabilitySlotDTO(instant(start), instant(end));
+    }
+
+    private static Instant instant(LocalDateTime time) {
+        return time.atZone(BookingServiceImpl.BUSINESS_ZONE_ID).toInstant();
+    }
+
+    private static LocalDateTime at(int day, int hour, int minute) {
+        return DAY.plusDays(day).atTime(hour, minute);
+    }
+}
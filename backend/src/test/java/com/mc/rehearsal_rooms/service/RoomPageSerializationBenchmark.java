@@ -0,0 +1,58 @@
+package com.mc.rehearsal_rooms.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.mc.rehearsal_rooms.dto.RoomResponseDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Serialización a JSON de la respuesta de GET /api/rooms (Page<RoomResponseDTO>)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoomPageSerializationBenchmark {
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    private ObjectWriter writer;
+    private Page<RoomResponseDTO> page;
+
+    @Setup
+    public void setUp() {
+        writer = Jackson2ObjectMapperBuilder.json().build().writer();
+        List<RoomResponseDTO> rooms = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            rooms.add(new RoomResponseDTO(i + 1, "Sala " + i, 5, List.of("Batería", "Amplificador", "Micrófono"),
+                    "https://example.com/rooms/" + i + ".jpg", "Sala de ensayo insonorizada", new BigDecimal("12.50"),
+                    new BigDecimal("15.00"), null, 60));
+        }
+        page = new PageImpl<>(rooms, PageRequest.of(0, pageSize), 1000);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return writer.writeValueAsBytes(page);
+    }
+}
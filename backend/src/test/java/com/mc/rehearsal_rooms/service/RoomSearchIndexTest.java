@@ -0,0 +1,63 @@
+package com.mc.rehearsal_rooms.service;
+
+import com.mc.rehearsal_rooms.dto.RoomResponseDTO;
+import com.mc.rehearsal_rooms.model.Room;
+import com.mc.rehearsal_rooms.repository.RoomRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RoomSearchIndexTest {
+
+    private RoomRepository roomRepository;
+    private RoomSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        roomRepository = mock(RoomRepository.class);
+        index = new RoomSearchIndex(roomRepository, new BookingIntervalIndex(null, 120));
+    }
+
+    @Test
+    void resyncPicksUpRoomsChangedByAnotherInstance() {
+        when(roomRepository.findAllWithEquipment()).thenReturn(List.of(room(1, 4, "Batería"), room(2, 8, "Piano")));
+        index.rebuild();
+        assertTrue(index.resync());
+
+        when(roomRepository.findAllWithEquipment()).thenReturn(List.of(room(1, 10, "Batería"), room(3, 6, "Batería")));
+        assertFalse(index.resync());
+
+        assertEquals(List.of(1, 3), ids(index.search(0, List.of("batería"), null, null)));
+        assertEquals(List.of(1), ids(index.search(8, List.of(), null, null)));
+        assertEquals(List.of(), ids(index.search(0, List.of("Piano"), null, null)));
+    }
+
+    @Test
+    void changesFromThisInstanceSurviveAnInSyncResync() {
+        when(roomRepository.findAllWithEquipment()).thenReturn(List.of(room(1, 4, "Batería")));
+        index.rebuild();
+
+        index.put(RoomServiceImpl.convertToResponseDTO(room(1, 12, "Batería", "Amplificador")));
+        when(roomRepository.findAllWithEquipment()).thenReturn(List.of(room(1, 12, "Batería", "Amplificador")));
+
+        assertTrue(index.resync());
+        assertEquals(List.of(1), ids(index.search(10, List.of("amplificador"), null, null)));
+    }
+
+    private static Room room(int id, int capacity, String... equipment) {
+        return new Room(id, "Sala " + id, "Sala de ensayo", new ArrayList<>(List.of(equipment)),
+                capacity, null, 1000, null, null, 60);
+    }
+
+    private static List<Integer> ids(List<RoomResponseDTO> rooms) {
+        return rooms.stream().map(RoomResponseDTO::getId).toList();
+    }
+}
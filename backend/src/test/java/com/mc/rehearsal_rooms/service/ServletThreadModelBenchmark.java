@@ -0,0 +1,144 @@
+package com.mc.rehearsal_rooms.service;
+
+import com.mc.rehearsal_rooms.RehearsalRoomsApplication;
+import com.mc.rehearsal_rooms.dto.RoomRequestDTO;
+import com.mc.rehearsal_rooms.model.User;
+import com.mc.rehearsal_rooms.repository.UserRepository;
+import com.mc.rehearsal_rooms.security.JwtTokenProvider;
+import com.mc.rehearsal_rooms.security.UserPrincipal;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Aplicación completa sobre PostgreSQL embebido con más clientes concurrentes que hilos tiene Tomcat
+ * por defecto (200), comparando ese pool con uno mayor. Los hilos virtuales necesitan Java 21 y el
+ * proyecto compila para Java 17, así que el modelo que se compara es el tamaño del pool de Tomcat.
+ * mvn -Pbenchmark test -Dbenchmark.include=ServletThreadModel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(256)
+@Fork(1)
+public class ServletThreadModelBenchmark {
+
+    private static final int ROOMS = 200;
+    private static final int SLOTS_PER_DAY = 13; // Bloques de una hora entre las 10:00 y las 23:00
+
+    @Param({"200", "400"})
+    public int tomcatMaxThreads;
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private String baseUrl;
+    private String token;
+    private List<Integer> roomIds;
+    private LocalDate firstDay;
+    private final AtomicInteger nextSlot = new AtomicInteger();
+    private final AtomicLong unexpectedResponses = new AtomicLong();
+
+    @Setup
+    public void setUp() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        // Como argumentos de línea de comandos, para que tengan prioridad sobre application.properties
+        context = new SpringApplicationBuilder(RehearsalRoomsApplication.class).run(
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=postgres",
+                "--server.tomcat.threads.max=" + tomcatMaxThreads,
+                "--server.port=0",
+                "--logging.level.root=WARN",
+                "--logging.level.com.zaxxer.hikari=WARN",
+                "--logging.level.org.hibernate=WARN");
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api";
+
+        RoomService roomService = context.getBean(RoomService.class);
+        roomIds = new ArrayList<>(ROOMS);
+        for (int i = 0; i < ROOMS; i++) {
+            roomIds.add(roomService.createRoom(new RoomRequestDTO("Sala " + i, 5, List.of("Batería"), null,
+                    "Sala de ensayo", new BigDecimal("10.00"), null, null, null)).getId());
+        }
+        User user = context.getBean(UserRepository.class)
+                .save(new User(0, "drummer", "drummer@example.com", "secret", "Ana", "Pérez", false));
+        token = context.getBean(JwtTokenProvider.class)
+                .generateTokenFromUsername(user.getUsername(), user.getId(), List.of(UserPrincipal.ROLE_USER));
+        firstDay = LocalDate.now(BookingServiceImpl.BUSINESS_ZONE_ID).plusDays(1);
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (context != null) {
+            context.close();
+        }
+        if (postgres != null) {
+            postgres.close();
+        }
+        // Un error (401, 409, 500...) responde más rápido que una petición correcta y falsea la medición
+        if (unexpectedResponses.get() > 0) {
+            throw new IllegalStateException(unexpectedResponses.get() + " unexpected responses; the results are not valid");
+        }
+    }
+
+    @Benchmark
+    public int listRooms() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/rooms")).GET().build();
+        return check(httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode(), 200);
+    }
+
+    // Cada llamada reserva una hora distinta, repartidas entre todas las salas
+    @Benchmark
+    public int createBooking() throws IOException, InterruptedException {
+        int slot = nextSlot.getAndIncrement();
+        int roomId = roomIds.get(slot % ROOMS);
+        int hourIndex = slot / ROOMS;
+        LocalDateTime start = firstDay.plusDays(hourIndex / SLOTS_PER_DAY).atTime(10 + hourIndex % SLOTS_PER_DAY, 0);
+        String body = String.format("{\"roomId\":%d,\"startTime\":\"%s\",\"endTime\":\"%s\"}", roomId,
+                start.atZone(BookingServiceImpl.BUSINESS_ZONE_ID).toInstant(),
+                start.plusHours(1).atZone(BookingServiceImpl.BUSINESS_ZONE_ID).toInstant());
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/bookings"))
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + token)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return check(httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode(), 201);
+    }
+
+    private int check(int status, int expected) {
+        if (status != expected) {
+            unexpectedResponses.incrementAndGet();
+        }
+        return status;
+    }
+}
@@ -0,0 +1,9 @@
+-- DDL que generaba Hibernate (ddl-auto=update) con las entidades anteriores a Flyway; BaselineMigrationTest
+-- crea con esto una base "heredada" sin historial de Flyway y comprueba que la aplicación la migra.
+create table bookings (id integer generated by default as identity, room_id integer not null, total_cost numeric(12,2) not null, user_id integer not null, created_at timestamp(6) not null, end_time timestamp(6) not null, start_time timestamp(6) not null, primary key (id));
+create table room (capacity integer not null, id integer generated by default as identity, price_per_hour numeric(10,2) not null, image_url varchar(2048), name varchar(255) not null, description oid not null, primary key (id));
+create table room_equipment (room_id integer not null, equipment_item varchar(255));
+create table users (id integer generated by default as identity, is_admin BOOLEAN DEFAULT FALSE not null, email varchar(100) not null unique, first_name varchar(100) not null, last_name varchar(100) not null, username varchar(100) not null unique, password varchar(255) not null, primary key (id));
+alter table if exists bookings add constraint FKathvvidp8xibgf9rd2c6vvkmp foreign key (room_id) references room;
+alter table if exists bookings add constraint FKeyog2oic85xg7hsu2je2lx3s6 foreign key (user_id) references users;
+alter table if exists room_equipment add constraint FKqi32u6nxv9y6w769n87o958fj foreign key (room_id) references room;
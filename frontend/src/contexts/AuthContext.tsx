@@ -1,8 +1,13 @@
 // src/contexts/AuthContext.tsx
 import React, { createContext, useContext, useState, useEffect, type ReactNode } from 'react';
-import type { User } from '../types/auth'; 
+import type { LoginResponse, User } from '../types/auth'; 
 import * as authService from '../services/authService'; 
-import axios from 'axios'; 
+import axios, { type AxiosRequestConfig } from 'axios'; 
+
+type RetriableRequest = AxiosRequestConfig & { _retried?: boolean };
+
+// Una sola renovación en curso aunque fallen varias peticiones a la vez
+let refreshInFlight: Promise<LoginResponse> | null = null;
 interface AuthContextType {
   isAuthenticated: boolean;
   user: User | null;
@@ -20,6 +25,50 @@ export const AuthProvider: React.FC<{ children: ReactNode }> = ({ children }) =>
   const [token, setToken] = useState<string | null>(null);
   const [isLoading, setIsLoading] = useState<boolean>(true); 
 
+  const storeSession = (session: LoginResponse) => {
+    setToken(session.accessToken);
+    localStorage.setItem('authToken', session.accessToken);
+    localStorage.setItem('refreshToken', session.refreshToken);
+    axios.defaults.headers.common['Authorization'] = `Bearer ${session.accessToken}`;
+  };
+
+  const clearSession = () => {
+    setUser(null);
+    setToken(null);
+    localStorage.removeItem('authToken');
+    localStorage.removeItem('refreshToken');
+    delete axios.defaults.headers.common['Authorization'];
+  };
+
+  // Cuando el access token expira (401) se renueva con el refresh token y se repite la petición una vez
+  useEffect(() => {
+    const interceptor = axios.interceptors.response.use(
+      (response) => response,
+      async (error) => {
+        const original = error.config as RetriableRequest | undefined;
+        const refreshToken = localStorage.getItem('refreshToken');
+        const isAuthCall = original?.url?.includes('/auth/');
+        if (error.response?.status !== 401 || !original || original._retried || isAuthCall || !refreshToken) {
+          return Promise.reject(error);
+        }
+        original._retried = true;
+        try {
+          refreshInFlight = refreshInFlight ?? authService.refreshSession(refreshToken);
+          const session = await refreshInFlight;
+          storeSession(session);
+          original.headers = { ...original.headers, Authorization: `Bearer ${session.accessToken}` };
+          return axios(original);
+        } catch (refreshError) {
+          clearSession();
+          return Promise.reject(error);
+        } finally {
+          refreshInFlight = null;
+        }
+      }
+    );
+    return () => axios.interceptors.response.eject(interceptor);
+  }, []);
+
   useEffect(() => {
     const initializeAuth = async () => {
       setIsLoading(true); 
@@ -34,10 +83,7 @@ export const AuthProvider: React.FC<{ children: ReactNode }> = ({ children }) =>
           console.log("AuthContext: User fetched successfully.", currentUser);
         } catch (error) {
           console.error("AuthContext: Failed to fetch user with stored token, logging out.", error);
-          localStorage.removeItem('authToken');
-          delete axios.defaults.headers.common['Authorization'];
-          setToken(null); 
-          setUser(null); 
+          clearSession();
         }
       }
       setIsLoading(false); 
@@ -48,17 +94,12 @@ export const AuthProvider: React.FC<{ children: ReactNode }> = ({ children }) =>
   const login = async (credentials: Parameters<typeof authService.loginUser>[0]) => {
     try {
       const response = await authService.loginUser(credentials); 
-      setToken(response.accessToken);
-      localStorage.setItem('authToken', response.accessToken);
-      axios.defaults.headers.common['Authorization'] = `Bearer ${response.accessToken}`;
+      storeSession(response);
       
       const currentUser = await authService.getMe();
       setUser(currentUser);
     } catch (error) { 
-      setUser(null);
-      setToken(null);
-      localStorage.removeItem('authToken');
-      delete axios.defaults.headers.common['Authorization'];
+      clearSession();
       throw error; 
     }
   };
@@ -72,10 +113,10 @@ export const AuthProvider: React.FC<{ children: ReactNode }> = ({ children }) =>
   };
 
   const logout = () => {
-    setUser(null);
-    setToken(null);
-    localStorage.removeItem('authToken');
-    delete axios.defaults.headers.common['Authorization'];
+    // Se envía antes de limpiar la sesión porque necesita la cabecera Authorization; si falla, se cierra igual
+    authService.logoutSession(localStorage.getItem('refreshToken'))
+      .catch(error => console.error("Error revoking session:", error));
+    clearSession();
   };
 
   return (
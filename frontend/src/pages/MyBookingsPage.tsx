@@ -31,6 +31,8 @@ import { es } from 'date-fns/locale';
 const MyBookingsPage: React.FC = () => {
   const [bookings, setBookings] = useState<BookingResponse[]>([]);
   const [loading, setLoading] = useState<boolean>(true);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [loadingMore, setLoadingMore] = useState<boolean>(false);
   const [error, setError] = useState<string | null>(null);
   const [cancelError, setCancelError] = useState<string | null>(null);
   const [cancelSuccess, setCancelSuccess] = useState<string | null>(null);
@@ -38,22 +40,25 @@ const MyBookingsPage: React.FC = () => {
   const [openCancelDialog, setOpenCancelDialog] = useState(false);
   const [bookingToCancel, setBookingToCancel] = useState<BookingResponse | null>(null);
 
+  const sortBookings = (data: BookingResponse[]) =>
+    [...data].sort((a, b) => {
+      const aIsFuture = isFuture(new Date(a.startTime));
+      const bIsFuture = isFuture(new Date(b.startTime));
+      if (aIsFuture && !bIsFuture) return -1;
+      if (!aIsFuture && bIsFuture) return 1;
+      if (aIsFuture && bIsFuture) return new Date(a.startTime).getTime() - new Date(b.startTime).getTime();
+      return new Date(b.startTime).getTime() - new Date(a.startTime).getTime();
+    });
+
   const loadBookings = async () => {
     setLoading(true);
     setError(null);
     setCancelError(null); 
     setCancelSuccess(null);
     try {
-      const data = await fetchMyBookings(); 
-      data.sort((a, b) => {
-        const aIsFuture = isFuture(new Date(a.startTime));
-        const bIsFuture = isFuture(new Date(b.startTime));
-        if (aIsFuture && !bIsFuture) return -1;
-        if (!aIsFuture && bIsFuture) return 1;
-        if (aIsFuture && bIsFuture) return new Date(a.startTime).getTime() - new Date(b.startTime).getTime();
-        return new Date(b.startTime).getTime() - new Date(a.startTime).getTime();
-      });
-      setBookings(data);
+      const page = await fetchMyBookings(); 
+      setBookings(sortBookings(page.content));
+      setNextCursor(page.hasNext ? page.nextCursor : null);
     } catch (err: any) {
       setError(err.message || 'Error al cargar tus reservas.');
       console.error(err);
@@ -62,6 +67,21 @@ const MyBookingsPage: React.FC = () => {
     }
   };
 
+  const loadMoreBookings = async () => {
+    if (!nextCursor) return;
+    setLoadingMore(true);
+    try {
+      const page = await fetchMyBookings(nextCursor);
+      setBookings((current) => sortBookings([...current, ...page.content]));
+      setNextCursor(page.hasNext ? page.nextCursor : null);
+    } catch (err: any) {
+      setError(err.message || 'Error al cargar tus reservas.');
+      console.error(err);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   useEffect(() => {
     loadBookings();
   }, []); 
@@ -231,6 +251,14 @@ const MyBookingsPage: React.FC = () => {
           </Grid>
         )}
 
+        {nextCursor && (
+          <Box display="flex" justifyContent="center" mt={4}>
+            <Button variant="outlined" color="secondary" onClick={loadMoreBookings} disabled={loadingMore}>
+              {loadingMore ? <CircularProgress color="inherit" size={20} /> : 'Cargar más'}
+            </Button>
+          </Box>
+        )}
+
         <Dialog
           open={openCancelDialog}
           onClose={handleCloseCancelDialog}
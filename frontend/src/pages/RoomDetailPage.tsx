@@ -55,6 +55,7 @@ const RoomDetailPage: React.FC = () => {
   const [bookingLoading, setBookingLoading] = useState<boolean>(false);
   const [bookingError, setBookingError] = useState<string | null>(null);
   const [bookingSuccess, setBookingSuccess] = useState<string | null>(null);
+  const [quotedCost, setQuotedCost] = useState<number | null>(null);
 
   const minBookingStartTime = useMemo(() => {
     const now = new Date();
@@ -100,6 +101,21 @@ const RoomDetailPage: React.FC = () => {
     }
   }, [id]);
 
+  // El precio real depende de tarifas punta/fin de semana y del bloque mínimo; lo calcula el servidor
+  useEffect(() => {
+    setQuotedCost(null);
+    if (!room || !startTime || !endTime || endTime.getTime() <= startTime.getTime() || !isAuthenticated) {
+      return;
+    }
+    let cancelled = false;
+    bookingService.quoteBookings([{ roomId: room.id, startTime: startTime.toISOString(), endTime: endTime.toISOString() }])
+      .then(([quote]) => {
+        if (!cancelled) setQuotedCost(quote.totalCost);
+      })
+      .catch(() => { /* Se mantiene la estimación con la tarifa base */ });
+    return () => { cancelled = true; };
+  }, [room, startTime, endTime, isAuthenticated]);
+
   const validateBookingTimes = (): boolean => {
     if (!startTime || !endTime) {
       setBookingError('Por favor, selecciona una fecha y hora de inicio y fin.');
@@ -214,7 +230,9 @@ const RoomDetailPage: React.FC = () => {
 
   const imageSrc = `/${room.imageUrl}`;
   const durationHours = calculateDurationInHours(startTime, endTime);
-  const estimatedCost = durationHours > 0 && room.pricePerHour ? (durationHours * room.pricePerHour).toFixed(2) : "0.00";
+  const estimatedCost = quotedCost !== null
+    ? quotedCost.toFixed(2)
+    : durationHours > 0 && room.pricePerHour ? (durationHours * room.pricePerHour).toFixed(2) : "0.00";
 
   return (
     <Box sx={{ py: { xs: 3, md: 5 } }}>
@@ -44,6 +44,17 @@ export const getMe = async (): Promise<User> => {
   }
 };
 
+// Renueva la sesión con el refresh token; el anterior deja de ser válido
+export const refreshSession = async (refreshToken: string): Promise<LoginResponse> => {
+  const response = await axios.post<LoginResponse>(`${API_AUTH_URL}/refresh`, { refreshToken });
+  return response.data;
+};
+
+// Revoca el access token actual y la familia del refresh token en el servidor
+export const logoutSession = async (refreshToken: string | null): Promise<void> => {
+  await axios.post(`${API_AUTH_URL}/logout`, refreshToken ? { refreshToken } : undefined);
+};
+
 export const loginUser = async (credentials: LoginData): Promise<LoginResponse> => {
   try {
     const response = await axios.post<LoginResponse>(`${API_AUTH_URL}/login`, credentials);
@@ -1,6 +1,7 @@
 // src/services/bookingService.ts
 import axios from 'axios';
-import type { BookingRequest, BookingResponse } from '../types/booking'; 
+import type { BookingQuote, BookingRequest, BookingResponse } from '../types/booking'; 
+import type { CursorPage } from '../types/common';
 //import API_URL from '../config';
 
 const API_BASE = import.meta.env.VITE_API_BASE_URL || 'http://localhost:8080/api';
@@ -17,10 +18,16 @@ export const createBooking = async (bookingData: BookingRequest): Promise<Bookin
     throw new Error('Error de red o desconocido al crear la reserva.');
   }
 };
-export const getMyBookings = async (page: number = 0, size: number = 10): Promise<BookingResponse[]> => {
+// Precio de varias combinaciones sala/horario en una sola llamada, sin crear reservas
+export const quoteBookings = async (quotes: BookingRequest[]): Promise<BookingQuote[]> => {
+  const response = await axios.post<BookingQuote[]>(`${API_BOOKINGS_URL}/quote`, { quotes });
+  return response.data;
+};
+
+export const getMyBookings = async (cursor?: string, size: number = 10): Promise<CursorPage<BookingResponse>> => {
 
-  const response = await axios.get<BookingResponse[]>(`${API_BOOKINGS_URL}/my-bookings`, {
-      params: { page, size } 
+  const response = await axios.get<CursorPage<BookingResponse>>(`${API_BOOKINGS_URL}/my-bookings`, {
+      params: { cursor, size } 
   });
   return response.data;
 };
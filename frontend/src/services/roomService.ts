@@ -1,5 +1,5 @@
 import axios from 'axios';
-import type { PaginatedRoomResponse, Room } from '../types/room'; 
+import type { AvailabilitySlot, PaginatedRoomResponse, Room } from '../types/room'; 
 const API_BASE = import.meta.env.VITE_API_BASE_URL || 'http://localhost:8080/api';
 //import API_URL from '../config';
 
@@ -27,6 +27,19 @@ export const getRoomById = async (id: number): Promise<Room> => {
   }
 };
 
+// Huecos libres de una sala entre dos instantes ISO-8601
+export const getRoomAvailability = async (id: number, from: string, to: string): Promise<AvailabilitySlot[]> => {
+  try {
+    const response = await axios.get<AvailabilitySlot[]>(`${API_BASE_URL}/${id}/availability`, {
+      params: { from, to }
+    });
+    return response.data;
+  } catch (error) {
+    console.error(`Error fetching availability for room ${id}:`, error);
+    throw error;
+  }
+};
+
 // Crear una nueva sala 
 // export const createRoom = async (roomData: Omit<Room, 'id'>): Promise<Room> => { ... }
 
@@ -20,4 +20,6 @@ export interface User {
   export interface LoginResponse {
     accessToken: string;
     tokenType: string; 
+    refreshToken: string;
+    expiresIn: number;
   }
\ No newline at end of file
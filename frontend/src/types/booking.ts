@@ -19,4 +19,11 @@ export interface BookingResponse {
   totalCost: number; 
 }
 
+export interface BookingQuote {
+  roomId: number;
+  startTime: string;
+  endTime: string;
+  totalCost: number;
+}
+
 export type PaginatedBookingResponse = Page<BookingResponse>;
\ No newline at end of file
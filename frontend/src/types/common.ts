@@ -26,4 +26,10 @@ export interface Page<T> {
     first: boolean;
     numberOfElements: number;
     empty: boolean;
-  }
\ No newline at end of file
+  }
+
+export interface CursorPage<T> {
+    content: T[];
+    nextCursor: string | null;
+    hasNext: boolean;
+  }
@@ -9,6 +9,14 @@ export interface Room {
   imageUrl?: string;
   description?: string;
   pricePerHour: number;
+  peakPricePerHour?: number | null; // Tarifa en horario punta; null = tarifa base
+  weekendPricePerHour?: number | null; // Tarifa de sábado y domingo; null = reglas de entre semana
+  minimumBlockMinutes: number; // Se cobra en bloques completos de esta duración
 }
 
-export type PaginatedRoomResponse = Page<Room>;
\ No newline at end of file
+export type PaginatedRoomResponse = Page<Room>;
+
+export interface AvailabilitySlot {
+  startTime: string;
+  endTime: string;
+}